@@ -0,0 +1,35 @@
+package com.space.benchmark;
+
+import com.space.config.AppConfig;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import javax.sql.DataSource;
+
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+/**
+ * Контекст приложения для бенчмарков: сервисы и репозитории из AppConfig поверх пустой базы H2 в памяти.
+ * Схема совпадает с test.sql и индексами из миграций, данные заполняет ShipDataset
+ */
+@Configuration
+@Import(AppConfig.class)
+public class BenchmarkConfig {
+
+    @Bean(name = "dataSource")
+    public DataSource dataSource() {
+        return new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .setScriptEncoding("UTF-8")
+                .addScript("benchmark-schema.sql")
+                .build();
+    }
+
+    public static AnnotationConfigApplicationContext start() {
+        return new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+    }
+}
@@ -0,0 +1,29 @@
+package com.space.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск JMH с записью результатов в jmh-result.json, если формат не задан ключами -rf/-rff.
+ * Остальные ключи командной строки JMH передаются без изменений
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+                || options.shouldListProfilers() || options.shouldListResultFormats()
+                || options.getResultFormat().hasValue() || options.getResult().hasValue()) {
+            Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .parent(options)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build()).run();
+    }
+}
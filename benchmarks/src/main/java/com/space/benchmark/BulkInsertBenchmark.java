@@ -0,0 +1,72 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.service.CosmoportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетная вставка CosmoportService.createAll против поштучного create для той же порции кораблей
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    @Param({"100", "1000"})
+    int batchSize;
+
+    private AnnotationConfigApplicationContext context;
+    private CosmoportService service;
+    private List<Ship> batch;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkConfig.start();
+        service = context.getBean(CosmoportService.class);
+    }
+
+    // createAll и create заполняют id и рейтинг, поэтому каждый вызов получает новые корабли
+    @Setup(Level.Invocation)
+    public void generate() {
+        batch = ShipDataset.generate(batchSize, seed++);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> createAll() {
+        return service.createAll(batch);
+    }
+
+    @Benchmark
+    public int createOneByOne() {
+        int created = 0;
+        for (Ship ship : batch) {
+            if (service.create(ship)) created++;
+        }
+        return created;
+    }
+}
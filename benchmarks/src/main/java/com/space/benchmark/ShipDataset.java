@@ -0,0 +1,59 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.CosmoportService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор синтетических кораблей. Значения лежат в тех же границах, что проверяет CosmoportService.create:
+ * название и планета до 50 символов, год выпуска 2800..3019, скорость 0.01..0.99, экипаж 1..9999
+ */
+public final class ShipDataset {
+    static final long MIN_PROD_DATE = 26192246400000L;
+    static final long MAX_PROD_DATE = 33103209600000L;
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String[] NAMES = {"Orion", "Daedalus", "Eagle", "Mongoose", "Excalibur", "Explorer",
+            "Icarus", "Hermes", "Odyssey", "Orbit", "Aries", "Hunter", "Apollo", "Voyager", "Nostromo", "Serenity"};
+    private static final String[] PLANETS = {"Mercury", "Venus", "Earth", "Mars", "Jupiter", "Saturn", "Uranus",
+            "Neptune", "Pluto", "Ceres", "Eris"};
+    private static final ShipType[] TYPES = ShipType.values();
+
+    private ShipDataset() {
+    }
+
+    /**
+     * Возвращает count новых кораблей без id и рейтинга; при одинаковом seed набор одинаков
+     */
+    public static List<Ship> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Ship> ships = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Ship ship = new Ship();
+            ship.setName(NAMES[random.nextInt(NAMES.length)] + " " + (random.nextInt(999) + 1));
+            ship.setPlanet(PLANETS[random.nextInt(PLANETS.length)]);
+            ship.setShipType(TYPES[random.nextInt(TYPES.length)]);
+            ship.setProdDate(new Date(MIN_PROD_DATE + (long) (random.nextDouble() * (MAX_PROD_DATE - MIN_PROD_DATE))));
+            ship.setUsed(random.nextBoolean());
+            ship.setSpeed(0.01 + random.nextInt(99) / 100.0);
+            ship.setCrewSize(random.nextInt(9999) + 1);
+            ships.add(ship);
+        }
+        return ships;
+    }
+
+    /**
+     * Сохраняет count сгенерированных кораблей через CosmoportService.createAll порциями по CHUNK_SIZE
+     */
+    public static void fill(CosmoportService service, int count, long seed) {
+        List<Ship> ships = generate(count, seed);
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            service.createAll(ships.subList(from, Math.min(from + CHUNK_SIZE, count)));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.space.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.space.config.WebConfig;
+import com.space.model.Ship;
+import com.space.model.ShipRating;
+import com.space.service.trace.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сериализация и разбор страницы кораблей теми же ObjectMapper, что настраивает WebConfig:
+ * JSON через ShipSerializer/ShipDeserializer, прежнее отражение полей, Smile и сжатие gzip, как в CompressionFilter.
+ * Выделение памяти показывает запуск с -prof gc; размеры тел печатает отдельный запуск main этого класса:
+ * java -cp target/benchmarks.jar com.space.benchmark.ShipJsonBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShipJsonBenchmark {
+
+    @Param({"3", "100", "10000"})
+    int pageSize;
+
+    private ObjectWriter jsonWriter;
+    private ObjectReader jsonReader;
+    private ObjectWriter reflectiveWriter;
+    private ObjectReader reflectiveReader;
+    private ObjectWriter smileWriter;
+    private ObjectReader smileReader;
+    private List<Ship> ships;
+    private byte[] json;
+    private byte[] smile;
+
+    @Setup
+    public void setup() throws IOException {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig(new StandardEnvironment(), new Tracer()).configureMessageConverters(converters);
+        ObjectMapper jsonMapper = ((AbstractJackson2HttpMessageConverter) converters.get(0)).getObjectMapper();
+        ObjectMapper smileMapper = ((AbstractJackson2HttpMessageConverter) converters.get(1)).getObjectMapper();
+        // Прежнее отражение корабля через @JsonProperty, без ShipSerializer и ShipDeserializer
+        ObjectMapper reflectiveMapper = jsonMapper.copy().setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+            @Override
+            public Object findSerializer(Annotated a) {
+                return a.getRawType() == Ship.class ? null : super.findSerializer(a);
+            }
+
+            @Override
+            public Object findDeserializer(Annotated a) {
+                return a.getRawType() == Ship.class ? null : super.findDeserializer(a);
+            }
+        });
+
+        JavaType type = jsonMapper.getTypeFactory().constructCollectionType(List.class, Ship.class);
+        jsonWriter = jsonMapper.writerFor(type);
+        jsonReader = jsonMapper.readerFor(type);
+        reflectiveWriter = reflectiveMapper.writerFor(type);
+        reflectiveReader = reflectiveMapper.readerFor(type);
+        smileWriter = smileMapper.writerFor(type);
+        smileReader = smileMapper.readerFor(type);
+
+        ships = ShipDataset.generate(pageSize, 42);
+        ShipRating engine = new ShipRating(ShipRating.ACTUAL_YEAR);
+        for (int i = 0; i < ships.size(); i++) {
+            ships.get(i).setId(i + 1L);
+            ships.get(i).addedInit(engine);
+        }
+        json = jsonWriter.writeValueAsBytes(ships);
+        smile = smileWriter.writeValueAsBytes(ships);
+    }
+
+    /**
+     * Печатает размеры тел в JSON и Smile, без сжатия и с gzip, для всех размеров страницы из pageSize
+     */
+    public static void main(String[] args) throws Exception {
+        ShipJsonBenchmark benchmark = new ShipJsonBenchmark();
+        for (String pageSize : ShipJsonBenchmark.class.getDeclaredField("pageSize").getAnnotation(Param.class).value()) {
+            benchmark.pageSize = Integer.parseInt(pageSize);
+            benchmark.setup();
+            System.out.printf("%s ships: json %d B, json+gzip %d B, smile %d B, smile+gzip %d B%n", pageSize,
+                    benchmark.json.length, gzip(benchmark.json).length,
+                    benchmark.smile.length, gzip(benchmark.smile).length);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192, true)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return jsonWriter.writeValueAsBytes(ships);
+    }
+
+    @Benchmark
+    public byte[] serializeJsonReflective() throws IOException {
+        return reflectiveWriter.writeValueAsBytes(ships);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws IOException {
+        return smileWriter.writeValueAsBytes(ships);
+    }
+
+    @Benchmark
+    public byte[] serializeJsonGzip() throws IOException {
+        return gzip(jsonWriter.writeValueAsBytes(ships));
+    }
+
+    @Benchmark
+    public byte[] serializeSmileGzip() throws IOException {
+        return gzip(smileWriter.writeValueAsBytes(ships));
+    }
+
+    @Benchmark
+    public List<Ship> deserializeJson() throws IOException {
+        return jsonReader.readValue(json);
+    }
+
+    @Benchmark
+    public List<Ship> deserializeJsonReflective() throws IOException {
+        return reflectiveReader.readValue(json);
+    }
+
+    @Benchmark
+    public List<Ship> deserializeSmile() throws IOException {
+        return smileReader.readValue(smile);
+    }
+}
@@ -0,0 +1,90 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.repository.CosmoportRepository;
+import com.space.repository.ShipSpecifications;
+import com.space.service.CosmoportService;
+import com.space.service.search.TrigramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск кораблей по подстроке названия на одном наборе данных: триграммный индекс TrigramIndex,
+ * прежний перебор названий регулярным выражением matches(".*" + q + ".*") и запасной путь через LIKE в H2.
+ * Запрос "Orion 42" выборочный, "ost" совпадает примерно с шестнадцатой частью кораблей
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ShipNameSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"Orion 42", "ost"})
+    String query;
+
+    private AnnotationConfigApplicationContext context;
+    private CosmoportRepository repository;
+    private String[] names;
+    private TrigramIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkConfig.start();
+        repository = context.getBean(CosmoportRepository.class);
+        ShipDataset.fill(context.getBean(CosmoportService.class), size, 42);
+
+        List<Ship> ships = ShipDataset.generate(size, 42);
+        names = new String[size];
+        index = new TrigramIndex();
+        for (int i = 0; i < size; i++) {
+            names[i] = ships.get(i).getName();
+            index.put(i, names[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int trigram() {
+        return index.search(query, size).size();
+    }
+
+    // Прежний фильтр CosmoportServiceImpl.shipFilter по названию
+    @Benchmark
+    public int regex() {
+        int found = 0;
+        for (String name : names) {
+            if (name.matches(".*" + query + ".*")) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long like() {
+        return repository.count(ShipSpecifications.filter(query, null, null, null, null, null,
+                null, null, null, null, null, null));
+    }
+}
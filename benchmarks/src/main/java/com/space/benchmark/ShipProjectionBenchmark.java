@@ -0,0 +1,74 @@
+package com.space.benchmark;
+
+import com.space.controller.ShipOrder;
+import com.space.repository.CosmoportRepository;
+import com.space.service.CosmoportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение всей выборки из 100 000 кораблей одним запросом:
+ * представлениями ShipView (SELECT new ShipView(...), как в списках и выгрузке) и управляемыми сущностями Ship
+ * в транзакции только для чтения и в обычной транзакции (с копиями состояния для проверки изменений).
+ * Память на вызов видна с профилировщиком GC: -prof gc, строка gc.alloc.rate.norm
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ShipProjectionBenchmark {
+    private static final int SIZE = 100_000;
+    private static final Sort BY_ID = Sort.by(ShipOrder.ID.getFieldName());
+
+    @Param({"VIEW", "ENTITY_READ_ONLY", "ENTITY"})
+    String source;
+
+    private AnnotationConfigApplicationContext context;
+    private CosmoportRepository repository;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkConfig.start();
+        repository = context.getBean(CosmoportRepository.class);
+        ShipDataset.fill(context.getBean(CosmoportService.class), SIZE, 42);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(!source.equals("ENTITY"));
+    }
+
+    @Setup(Level.Invocation)
+    public void evictCaches() {
+        repository.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int readAll() {
+        return transaction.execute(status -> source.equals("VIEW")
+                ? repository.findViews(null, BY_ID, 0, SIZE, false).size()
+                : repository.findAll(BY_ID).size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.space.benchmark;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.repository.CosmoportRepository;
+import com.space.service.CosmoportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Запросы CosmoportService.count и getSome: построение фильтра (shipFilter), выборка и подсчёт в H2,
+ * в сравнении с прежним путём legacy*: findAll() и фильтрация, сортировка и пагинация в памяти.
+ * Перед каждым вызовом кэши Hibernate очищаются, чтобы измерялся запрос к базе, а не попадание в кэш запросов
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ShipQueryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    private AnnotationConfigApplicationContext context;
+    private CosmoportService service;
+    private CosmoportRepository repository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkConfig.start();
+        service = context.getBean(CosmoportService.class);
+        repository = context.getBean(CosmoportRepository.class);
+        ShipDataset.fill(service, size, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void evictCaches() {
+        repository.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int countAll() {
+        return service.count(null, null, null, null, null, null,
+                null, null, null, null, null, null, false);
+    }
+
+    @Benchmark
+    public int countFiltered() {
+        return service.count(null, null, ShipType.MERCHANT, null, null, false,
+                0.5, null, null, 5000, null, null, false);
+    }
+
+    @Benchmark
+    public List<ShipView> getSomeFiltered() {
+        return service.getSome(null, null, ShipType.MERCHANT, null, null, false,
+                0.5, null, null, 5000, null, null, ShipOrder.RATING, 0, 3, null);
+    }
+
+    @Benchmark
+    public List<ShipView> getSomeByName() {
+        return service.getSome("ori", "ar", null, null, null, null,
+                null, null, null, null, null, null, ShipOrder.ID, 0, 3, null);
+    }
+
+    @Benchmark
+    public List<ShipView> getSomeDeepPage() {
+        return service.getSome(null, null, null, null, null, null,
+                null, null, null, null, null, null, ShipOrder.SPEED, 100, 20, null);
+    }
+
+    @Benchmark
+    public int legacyCountFiltered() {
+        return (int) legacyFilter(null, null, ShipType.MERCHANT, null, null, false,
+                0.5, null, null, 5000, null, null).count();
+    }
+
+    @Benchmark
+    public List<Ship> legacyGetSomeFiltered() {
+        return legacyPage(legacyFilter(null, null, ShipType.MERCHANT, null, null, false,
+                0.5, null, null, 5000, null, null), Comparator.comparingDouble(Ship::getRating), 0, 3);
+    }
+
+    @Benchmark
+    public List<Ship> legacyGetSomeByName() {
+        return legacyPage(legacyFilter("ori", "ar", null, null, null, null,
+                null, null, null, null, null, null), Comparator.comparingLong(Ship::getId), 0, 3);
+    }
+
+    // Прежний CosmoportServiceImpl.shipFilter: все корабли загружаются и фильтруются в памяти
+    private Stream<Ship> legacyFilter(String name, String planet, ShipType shipType, Long after, Long before,
+                                      Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                      Integer maxCrewSize, Double minRating, Double maxRating) {
+        return repository.findAll()
+                .stream()
+                .filter(x -> name == null || x.getName().matches(".*" + name + ".*"))
+                .filter(x -> planet == null || x.getPlanet().matches(".*" + planet + ".*"))
+                .filter(x -> shipType == null || x.getShipType() == shipType)
+                .filter(x -> after == null || x.getProdDate().getTime() >= after)
+                .filter(x -> before == null || x.getProdDate().getTime() <= before)
+                .filter(x -> isUsed == null || x.getUsed() == isUsed)
+                .filter(x -> minSpeed == null || x.getSpeed() >= minSpeed)
+                .filter(x -> maxSpeed == null || x.getSpeed() <= maxSpeed)
+                .filter(x -> minCrewSize == null || x.getCrewSize() >= minCrewSize)
+                .filter(x -> maxCrewSize == null || x.getCrewSize() <= maxCrewSize)
+                .filter(x -> minRating == null || x.getRating() >= minRating)
+                .filter(x -> maxRating == null || x.getRating() <= maxRating);
+    }
+
+    // Прежняя сортировка и пагинация getSome: весь отфильтрованный список, затем subList
+    private static List<Ship> legacyPage(Stream<Ship> ships, Comparator<Ship> order, int pageNumber, int pageSize) {
+        List<Ship> sorted = ships.sorted(order).collect(Collectors.toList());
+        int startIndex = pageNumber * pageSize;
+        return sorted.subList(startIndex, Math.min(startIndex + pageSize, sorted.size()));
+    }
+}
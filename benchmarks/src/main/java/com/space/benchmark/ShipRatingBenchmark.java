@@ -0,0 +1,67 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipRating;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Расчёт рейтинга ShipRating и Ship.addedInit в сравнении с прежней формулой через SimpleDateFormat.
+ * Выделение памяти на операцию показывает запуск с -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShipRatingBenchmark {
+    private static final int SIZE = 1024;
+
+    private final ShipRating engine = new ShipRating(ShipRating.ACTUAL_YEAR);
+    private List<Ship> ships;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ships = ShipDataset.generate(SIZE, 42);
+    }
+
+    private Ship nextShip() {
+        return ships.get(next++ & (SIZE - 1));
+    }
+
+    @Benchmark
+    public double rating() {
+        Ship ship = nextShip();
+        return engine.rating(ship.getSpeed(), ship.getUsed(), ship.getProdDate().getTime());
+    }
+
+    // Прежний расчёт рейтинга из Ship.makeRating
+    @Benchmark
+    public double legacyRating() {
+        Ship ship = nextShip();
+        int prodYear = Integer.parseInt(new SimpleDateFormat("yyyy").format(ship.getProdDate()));
+        Double rating = (80 * ship.getSpeed() * (ship.getUsed() ? 0.5 : 1)) / (3019 - prodYear + 1);
+        return Math.round(rating * 100.0) / 100.0;
+    }
+
+    @Benchmark
+    public Ship addedInit() {
+        Ship ship = nextShip();
+        ship.addedInit(engine);
+        return ship;
+    }
+}
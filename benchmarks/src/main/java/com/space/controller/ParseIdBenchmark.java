@@ -0,0 +1,35 @@
+package com.space.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор id из пути запроса CosmoportController.parseId на корректных и некорректных значениях.
+ * Лежит в пакете контроллера, так как parseId доступен только внутри пакета
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseIdBenchmark {
+
+    @Param({"17", "3.0", "9223372036854775807", "-5", "1.5", "abc"})
+    String id;
+
+    @Benchmark
+    public long parseId() {
+        return CosmoportController.parseId(id);
+    }
+}
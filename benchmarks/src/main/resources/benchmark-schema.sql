@@ -0,0 +1,25 @@
+DROP TABLE IF EXISTS ship;
+
+CREATE TABLE ship
+(
+    id       BIGINT(20)  NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(50) NULL,
+    planet   VARCHAR(50) NULL,
+    shipType VARCHAR(9)  NULL,
+    prodDate date        NULL,
+    isUsed   BIT(1)      NULL,
+    speed    DOUBLE      NULL,
+    crewSize INT(4)      NULL,
+    rating   DOUBLE      NULL,
+    version  BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+
+-- Индексы из db/migration/V3__add_ship_indexes.sql
+CREATE INDEX idx_ship_speed ON ship (speed);
+CREATE INDEX idx_ship_prodDate ON ship (prodDate);
+CREATE INDEX idx_ship_rating ON ship (rating);
+CREATE INDEX idx_ship_crewSize ON ship (crewSize);
+CREATE INDEX idx_ship_shipType_isUsed_rating ON ship (shipType, isUsed, rating);
+CREATE INDEX idx_ship_shipType_prodDate ON ship (shipType, prodDate);
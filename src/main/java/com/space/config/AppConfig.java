@@ -1,12 +1,34 @@
 package com.space.config;
 
+import com.space.service.metrics.MeteredTransactionManager;
+import com.space.service.metrics.SqlStatementCounter;
+import com.space.service.routing.ReplicaRoutingDataSource;
+import com.space.service.trace.SlowTraces;
+import com.space.service.trace.Tracer;
+import com.space.service.trace.TracingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
@@ -17,7 +39,10 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
 
@@ -25,7 +50,14 @@ import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@PropertySource("classpath:application.properties")
 public class AppConfig {
+    private final Environment env;
+
+    @Autowired
+    public AppConfig(Environment env) {
+        this.env = env;
+    }
 
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
@@ -36,25 +68,171 @@ public class AppConfig {
         JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
         em.setJpaProperties(additionalProperties());
+        em.getJpaPropertyMap().put("hibernate.session_factory.statement_inspector", sqlStatementCounter());
+        // Hibernate получает соединения через TracingDataSource, а Spring (транзакции, @Sql в тестах) видит исходный пул.
+        // При чтении с реплик соединение берётся только перед первым SQL-запросом, когда известен признак readOnly
+        DataSource dataSource = dataSource() instanceof ReplicaRoutingDataSource
+                ? new LazyConnectionDataSourceProxy(dataSource()) : dataSource();
+        em.getJpaPropertyMap().put("hibernate.connection.datasource", new TracingDataSource(dataSource, tracer()));
 
         return em;
     }
 
+    /*
+     * Реестр метрик приложения, отдаётся в формате Prometheus по адресу /metrics.
+     * Для таймеров и распределений cosmoport.* считаются процентили 0.5, 0.95 и 0.99 (HdrHistogram)
+     */
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith("cosmoport.")) return config;
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .build()
+                        .merge(config);
+            }
+        });
+        return registry;
+    }
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter(meterRegistry());
+    }
+
+    /*
+     * Время и число SQL-запросов каждого HTTP-запроса; фильтр подключается в MyWebAppInit
+     */
+    @Bean
+    public MetricsFilter metricsFilter() {
+        return new MetricsFilter(meterRegistry(), sqlStatementCounter());
+    }
+
+    @Bean
+    public Tracer tracer() {
+        return new Tracer();
+    }
+
+    /*
+     * Трассировка отдельных запросов; фильтр подключается в MyWebAppInit
+     */
+    @Bean
+    public TracingFilter tracingFilter(SlowTraces slowTraces) {
+        return new TracingFilter(tracer(), slowTraces, env.getProperty("cosmoport.trace.sampleRate", Double.class, 0.0));
+    }
+
+    /*
+     * Метрики Hibernate (загруженные сущности, запросы, попадания в кэши) публикуются,
+     * только если включена статистика свойством hibernate.statistics
+     */
+    @Bean
+    public HibernateMetrics hibernateMetrics(EntityManagerFactory emf) {
+        HibernateMetrics metrics = new HibernateMetrics(emf.unwrap(SessionFactory.class), "cosmoport", Tags.empty());
+        metrics.bindTo(meterRegistry());
+        return metrics;
+    }
+
+    /*
+     * Пул соединений с MySQL. Настройки берутся из application.properties
+     * и могут быть переопределены системными свойствами или переменными окружения.
+     * Метрики пула публикуются через JMX (com.zaxxer.hikari:type=Pool (cosmoport)) и в реестр метрик (hikaricp.*)
+     * Перед выдачей пула схема базы приводится к последней версии миграциями Flyway из db/migration.
+     * Если заданы адреса реплик (db.replica.urls), чтение в транзакциях readOnly распределяется по их пулам
+     */
     @Profile("prod")
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        HikariDataSource primary = pool("cosmoport", env.getRequiredProperty("db.url"));
+        migrate(primary);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : env.getProperty("db.replica.urls", String[].class, new String[0])) {
+            String name = "cosmoport-replica-" + (replicas.size() + 1);
+            HikariDataSource replica = pool(name, url.trim());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return replicas.isEmpty() ? primary : routing(primary, replicas);
+    }
+
+    private HikariDataSource pool(String name, String url) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(url);
+        config.setUsername(env.getRequiredProperty("db.username"));
+        config.setPassword(env.getRequiredProperty("db.password"));
+        config.setMaximumPoolSize(env.getRequiredProperty("db.pool.maximumPoolSize", Integer.class));
+        config.setMinimumIdle(env.getRequiredProperty("db.pool.minimumIdle", Integer.class));
+        config.setConnectionTimeout(env.getRequiredProperty("db.pool.connectionTimeout", Long.class));
+        config.setIdleTimeout(env.getRequiredProperty("db.pool.idleTimeout", Long.class));
+        config.setMaxLifetime(env.getRequiredProperty("db.pool.maxLifetime", Long.class));
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry()));
+
+        // Кэширование подготовленных выражений на стороне драйвера MySQL
+        config.addDataSourceProperty("cachePrepStmts", env.getRequiredProperty("db.cachePrepStmts"));
+        config.addDataSourceProperty("prepStmtCacheSize", env.getRequiredProperty("db.prepStmtCacheSize"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", env.getRequiredProperty("db.prepStmtCacheSqlLimit"));
+        config.addDataSourceProperty("useServerPrepStmts", env.getRequiredProperty("db.useServerPrepStmts"));
+        return new HikariDataSource(config);
+    }
+
+    /*
+     * Маршрутизация чтения на реплики; отставание каждой реплики публикуется в реестр метрик (cosmoport.db.replica.lag)
+     */
+    private ReplicaRoutingDataSource routing(DataSource primary, Map<String, DataSource> replicas) {
+        long maxLag = env.getProperty("db.replica.maxLag", Long.class, 5L);
+        long checkInterval = env.getProperty("db.replica.checkInterval", Long.class, 5000L);
+        // По умолчанию реплика за это время либо получает изменения, либо исключается проверкой
+        long primaryWindow = env.getProperty("db.replica.primaryWindow", Long.class,
+                TimeUnit.SECONDS.toMillis(maxLag) + checkInterval);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas,
+                env.getProperty("db.replica.lagQuery"), maxLag, checkInterval, primaryWindow);
+        for (ReplicaRoutingDataSource.Replica replica : routing.getReplicas()) {
+            Gauge.builder("cosmoport.db.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLag)
+                    .description("Replica lag in seconds, -1 if the replica is unavailable")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry());
+        }
+        return routing;
     }
 
+    /*
+     * База, созданная прежним init.sql, уже содержит таблицу и начальные данные (версии 1 и 2),
+     * поэтому при первом запуске на ней выполняются только следующие миграции
+     */
+    private void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("2")
+                .load()
+                .migrate();
+    }
+
+    /*
+     * Встроенная база H2; для проверки чтения с реплик свойством db.replica.embedded
+     * рядом создаются ещё несколько независимых баз с теми же начальными данными
+     */
     @Profile("dev")
     @Bean(name = "dataSource")
     public DataSource dataSourceForTests() {
+        DataSource primary = embeddedDatabase();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        int count = env.getProperty("db.replica.embedded", Integer.class, 0);
+        for (int i = 1; i <= count; i++) {
+            replicas.put("replica-" + i, embeddedDatabase());
+        }
+        return replicas.isEmpty() ? primary : routing(primary, replicas);
+    }
 
+    private DataSource embeddedDatabase() {
         return new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
                 .setType(H2)
@@ -66,8 +244,7 @@ public class AppConfig {
 
     @Bean
     public PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
-        JpaTransactionManager transactionManager = new JpaTransactionManager();
-        transactionManager.setEntityManagerFactory(emf);
+        JpaTransactionManager transactionManager = new MeteredTransactionManager(emf, meterRegistry());
 
         return transactionManager;
     }
@@ -77,9 +254,21 @@ public class AppConfig {
         return new PersistenceExceptionTranslationPostProcessor();
     }
 
+    /*
+     * Кэш второго уровня и кэш запросов Hibernate хранятся в Caffeine через JCache.
+     * Размеры и время жизни регионов задаются в application.conf,
+     * статистика попаданий и промахов публикуется через JMX (javax.cache:type=CacheStatistics)
+     */
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        properties.setProperty("hibernate.cache.use_query_cache", "true");
+        properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        properties.setProperty("hibernate.javax.cache.provider",
+                "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        properties.setProperty("hibernate.generate_statistics", env.getProperty("hibernate.statistics", "false"));
 
         return properties;
     }
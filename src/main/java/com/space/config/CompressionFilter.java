@@ -0,0 +1,66 @@
+package com.space.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Сжимает ответы /rest/ships* в gzip или deflate, если клиент указал их в Accept-Encoding.
+ * Ответы короче CompressionResponseWrapper.MIN_SIZE байт отправляются без сжатия.
+ * Все ответы этих адресов, сжатые и нет, получают Vary: Accept-Encoding, чтобы кэши не путали варианты.
+ * Для асинхронных обработчиков сжатие завершается при повторной отправке запроса в контейнер (ASYNC dispatch)
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+    private static final String COMPRESSED_PATH = "/rest/ships";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + COMPRESSED_PATH);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressionResponseWrapper wrapper = WebUtils.getNativeResponse(response, CompressionResponseWrapper.class);
+        if (wrapper == null) {
+            if (!isAsyncDispatch(request)) response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String encoding = encoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (encoding == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new CompressionResponseWrapper(response, encoding);
+            response = wrapper;
+        }
+        filterChain.doFilter(request, response);
+        if (!isAsyncStarted(request)) wrapper.finish();
+    }
+
+    /**
+     * Выбирает сжатие из заголовка Accept-Encoding; gzip предпочтительнее deflate.
+     * Возвращает null, если клиент не принимает ни одно из них
+     */
+    static String encoding(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        boolean deflate = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String name = parts[0].trim().toLowerCase();
+            if (parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?")) continue;
+            if (name.equals("gzip") || name.equals("x-gzip") || name.equals("*")) return "gzip";
+            if (name.equals("deflate")) deflate = true;
+        }
+        return deflate ? "deflate" : null;
+    }
+}
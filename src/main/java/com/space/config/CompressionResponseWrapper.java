@@ -0,0 +1,171 @@
+package com.space.config;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ответ, тело которого сжимается на лету.
+ * Первые MIN_SIZE байт накапливаются в буфере: если ответ закончился раньше, он уходит без сжатия,
+ * иначе выставляется Content-Encoding и дальше всё тело пишется в сжимающий поток.
+ * Сжатое тело побайтно отличается от несжатого, поэтому строгий ETag ответа при сжатии становится слабым (W/)
+ */
+class CompressionResponseWrapper extends HttpServletResponseWrapper {
+    static final int MIN_SIZE = 1024;
+
+    private final String encoding;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(MIN_SIZE);
+    private OutputStream compressed;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private boolean finished;
+
+    CompressionResponseWrapper(HttpServletResponse response, String encoding) {
+        super(response);
+        this.encoding = encoding;
+    }
+
+    // Длина сжатого тела заранее неизвестна
+    @Override
+    public void setContentLength(int len) {
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.addHeader(name, value);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) throw new IllegalStateException("getWriter() has already been called");
+        if (outputStream == null) outputStream = new CompressingOutputStream();
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null && writer == null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            outputStream = new CompressingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) writer.flush();
+        if (compressed != null) compressed.flush();
+        else if (buffer.size() == 0) super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (compressed != null) throw new IllegalStateException("Response body has already been compressed");
+        buffer.reset();
+        super.resetBuffer();
+    }
+
+    /**
+     * Дописывает тело ответа: короткий ответ отправляется без сжатия, у сжатого дописывается окончание потока
+     */
+    void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        if (writer != null) writer.flush();
+        if (compressed != null) {
+            compressed.close();
+        } else if (buffer.size() > 0) {
+            getResponse().getOutputStream().write(buffer.toByteArray());
+        }
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        if (compressed == null) {
+            if (buffer.size() + length <= MIN_SIZE) {
+                buffer.write(bytes, offset, length);
+                return;
+            }
+            startCompression();
+        }
+        compressed.write(bytes, offset, length);
+    }
+
+    private void startCompression() throws IOException {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        if (eTag != null && !eTag.startsWith("W/")) response.setHeader(HttpHeaders.ETAG, "W/" + eTag);
+        OutputStream out = response.getOutputStream();
+        compressed = encoding.equals("gzip") ? new GZIPOutputStream(out, 8192, true)
+                : new DeflaterOutputStream(out, true);
+        buffer.writeTo(compressed);
+        buffer.reset();
+    }
+
+    private class CompressingOutputStream extends ServletOutputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            CompressionResponseWrapper.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressionResponseWrapper.this.write(b, off, len);
+        }
+
+        // Пока ответ короче MIN_SIZE, сброс откладывается: иначе нельзя решить, сжимать ли его
+        @Override
+        public void flush() throws IOException {
+            if (compressed != null) compressed.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        // Неблокирующая запись идёт через поток исходного ответа, в который пишется и сжатое тело
+        @Override
+        public boolean isReady() {
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                getResponse().getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.space.config;
+
+import com.space.service.metrics.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Измеряет время обработки каждого HTTP-запроса (cosmoport.http.requests) и число SQL-запросов,
+ * выполненных для него (cosmoport.http.sql.statements). Метрики разделяются по методу и шаблону пути обработчика.
+ * Асинхронный запрос учитывается при завершении; счётчик SQL-запросов передаётся в пул DbExecutor вместе с задачей
+ */
+public class MetricsFilter extends OncePerRequestFilter {
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final SqlStatementCounter statementCounter;
+
+    public MetricsFilter(MeterRegistry registry, SqlStatementCounter statementCounter) {
+        this.registry = registry;
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        AtomicInteger statements = new AtomicInteger();
+        AtomicInteger previous = statementCounter.attach(statements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementCounter.restore(previous);
+            if (isAsyncStarted(request)) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, start, statements);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, start, statements);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start,
+                        AtomicInteger statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+        Timer.builder("cosmoport.http.requests")
+                .description("HTTP request latency")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .tag("status", String.valueOf(response.getStatus()))
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("cosmoport.http.sql.statements")
+                .description("SQL statements per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(statements.get());
+    }
+}
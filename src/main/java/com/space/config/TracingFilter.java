@@ -0,0 +1,111 @@
+package com.space.config;
+
+import com.space.model.RequestTrace;
+import com.space.service.trace.SlowTraces;
+import com.space.service.trace.Span;
+import com.space.service.trace.Tracer;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Трассирует запросы с заголовком X-Cosmoport-Trace: true, а также случайную долю запросов
+ * cosmoport.trace.sampleRate (от 0 до 1, по умолчанию 0). Дерево этапов запроса передаётся в SlowTraces,
+ * а номер трассировки возвращается в заголовке X-Cosmoport-Trace-Id
+ */
+public class TracingFilter extends OncePerRequestFilter {
+    public static final String TRACE_HEADER = "X-Cosmoport-Trace";
+    public static final String TRACE_ID_HEADER = "X-Cosmoport-Trace-Id";
+    private static final String SPAN_ATTRIBUTE = TracingFilter.class.getName() + ".SPAN";
+
+    private final Tracer tracer;
+    private final SlowTraces slowTraces;
+    private final double sampleRate;
+
+    public TracingFilter(Tracer tracer, SlowTraces slowTraces, double sampleRate) {
+        this.tracer = tracer;
+        this.slowTraces = slowTraces;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            // Результат асинхронного обработчика сериализуется в новом проходе, который продолжает ту же трассировку
+            Span root = (Span) request.getAttribute(SPAN_ATTRIBUTE);
+            Span previous = tracer.attach(root);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                tracer.restore(previous);
+            }
+            return;
+        }
+        if (!isTraced(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long id = slowTraces.nextId();
+        long startedAt = System.currentTimeMillis();
+        String uri = request.getQueryString() == null ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        response.setHeader(TRACE_ID_HEADER, String.valueOf(id));
+        Span previous = tracer.current();
+        Span root = tracer.startTrace("request", request.getMethod() + " " + uri);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            tracer.restore(previous);
+            if (isAsyncStarted(request)) {
+                request.setAttribute(SPAN_ATTRIBUTE, root);
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finish(id, request, response, uri, startedAt, root);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                finish(id, request, response, uri, startedAt, root);
+            }
+        }
+    }
+
+    private boolean isTraced(HttpServletRequest request) {
+        String header = request.getHeader(TRACE_HEADER);
+        if (header != null) return header.equals("1") || header.equalsIgnoreCase("true");
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    // Асинхронный запрос завершается после повторного прохода, поэтому корневой участок закрывается здесь
+    private void finish(long id, HttpServletRequest request, HttpServletResponse response, String uri, long startedAt,
+                        Span root) {
+        root.end();
+        slowTraces.offer(new RequestTrace(id, request.getMethod(), uri, response.getStatus(), startedAt,
+                root.getDurationNanos() / 1e6, root.snapshot(root.getStart())));
+    }
+}
@@ -0,0 +1,51 @@
+package com.space.config;
+
+import com.space.service.trace.Span;
+import com.space.service.trace.Tracer;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Участок "handler" трассировки: разбор параметров, метод контроллера и запись ответа.
+ * Для асинхронного обработчика участок закрывается, когда поток контейнера освобождается,
+ * а запись результата попадает в отдельный участок повторного прохода
+ */
+class TracingInterceptor implements AsyncHandlerInterceptor {
+    private static final String SPAN_ATTRIBUTE = TracingInterceptor.class.getName() + ".SPAN";
+
+    private final Tracer tracer;
+
+    TracingInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String detail = handler instanceof HandlerMethod ? ((HandlerMethod) handler).getShortLogMessage() : null;
+        Span span = tracer.start("handler", detail);
+        if (span != null) request.setAttribute(SPAN_ATTRIBUTE, span);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        close(request);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        close(request);
+    }
+
+    private void close(HttpServletRequest request) {
+        Span span = (Span) request.getAttribute(SPAN_ATTRIBUTE);
+        if (span == null) return;
+        request.removeAttribute(SPAN_ATTRIBUTE);
+        span.close();
+    }
+}
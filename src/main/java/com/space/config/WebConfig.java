@@ -2,26 +2,46 @@ package com.space.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.space.service.trace.Span;
+import com.space.service.trace.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.web.servlet.view.JstlView;
 
+import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.List;
 
 @Configuration
 @EnableWebMvc
 @ComponentScan("com.space.controller")
 public class WebConfig implements WebMvcConfigurer {
+    private final Environment env;
+    private final Tracer tracer;
 
+    @Autowired
+    public WebConfig(Environment env, Tracer tracer) {
+        this.env = env;
+        this.tracer = tracer;
+    }
 
     /*
      * Возвращает бин-представление посредством DI.
@@ -48,11 +68,56 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/src/main/resources/**").addResourceLocations("/src/main/resources/");
     }
 
+    /*
+     * ObjectMapper для REST-ответов; используется и конвертером, и контроллерами, читающими JSON вручную
+     */
+    @Bean
+    public ObjectMapper objectMapper() {
+        return configure(new ObjectMapper());
+    }
+
+    /*
+     * JSON остаётся форматом по умолчанию; Smile (бинарный JSON) отдаётся клиентам,
+     * запросившим application/x-jackson-smile. Повторяющиеся имена полей в нём передаются ссылками
+     */
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                try (Span span = tracer.start("serialize", "json")) {
+                    super.writeInternal(object, type, outputMessage);
+                }
+            }
+        });
+        converters.add(new MappingJackson2SmileHttpMessageConverter(configure(new ObjectMapper(new SmileFactory()))) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                try (Span span = tracer.start("serialize", "smile")) {
+                    super.writeInternal(object, type, outputMessage);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TracingInterceptor(tracer));
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return mapper;
+    }
+
+    /*
+     * Время ожидания асинхронного ответа; по его истечении клиент получает 503 ошибку
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(env.getProperty("cosmoport.async.timeout", Long.class, 30000L));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.space.controller;
+
+import com.space.model.ExecutorStats;
+import com.space.model.FilterUsage;
+import com.space.model.RequestTrace;
+import com.space.model.RerateProgress;
+import com.space.model.ShipRating;
+import com.space.service.FilterStatistics;
+import com.space.service.async.DbExecutor;
+import com.space.service.rating.RatingService;
+import com.space.service.trace.SlowTraces;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/rest/admin")
+public class AdminController {
+    private final RatingService ratingService;
+    private final FilterStatistics filterStatistics;
+    private final DbExecutor dbExecutor;
+    private final SlowTraces slowTraces;
+
+    @Autowired
+    public AdminController(RatingService ratingService, FilterStatistics filterStatistics, DbExecutor dbExecutor,
+                           SlowTraces slowTraces) {
+        this.ratingService = ratingService;
+        this.filterStatistics = filterStatistics;
+        this.dbExecutor = dbExecutor;
+        this.slowTraces = slowTraces;
+    }
+
+    /**
+     * Возвращает состояние текущего или последнего пересчёта рейтинга
+     */
+    @GetMapping(value = "/rating")
+    public ResponseEntity<RerateProgress> getRatingProgress() {
+        return new ResponseEntity<>(ratingService.getProgress(), HttpStatus.OK);
+    }
+
+    /**
+     * Устанавливает новый текущий год и запускает фоновый пересчёт рейтинга всех кораблей
+     * Возвращает код 202 и состояние пересчёта
+     * Возвращает 400 ошибку, если год раньше последнего года выпуска кораблей
+     * Возвращает 409 ошибку, если предыдущий пересчёт ещё не закончен
+     */
+    @PostMapping(value = "/rating")
+    public ResponseEntity<RerateProgress> rerate(@RequestParam(name = "actualYear") Integer actualYear) {
+        if (actualYear < ShipRating.ACTUAL_YEAR) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        RerateProgress progress = ratingService.rerate(actualYear);
+        if (progress == null) return new ResponseEntity<>(HttpStatus.CONFLICT);
+        return new ResponseEntity<>(progress, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Возвращает сочетания фильтров и порядков сортировки, с которыми запрашивался список кораблей,
+     * и количество таких запросов, начиная с самых частых. Используется для выбора индексов таблицы ship
+     */
+    @GetMapping(value = "/filters")
+    public ResponseEntity<List<FilterUsage>> getFilterUsage() {
+        return new ResponseEntity<>(filterStatistics.getUsage(), HttpStatus.OK);
+    }
+
+    /**
+     * Сбрасывает статистику фильтров
+     */
+    @DeleteMapping(value = "/filters")
+    public ResponseEntity<?> resetFilterUsage() {
+        filterStatistics.reset();
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    /**
+     * Возвращает состояние пула потоков базы данных и счётчики запросов по обработчикам
+     */
+    @GetMapping(value = "/executor")
+    public ResponseEntity<ExecutorStats> getExecutorStats() {
+        return new ResponseEntity<>(dbExecutor.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Возвращает самые долгие из трассированных запросов, начиная с самого долгого.
+     * Трассируются запросы с заголовком X-Cosmoport-Trace: true и доля cosmoport.trace.sampleRate остальных
+     */
+    @GetMapping(value = "/traces")
+    public ResponseEntity<List<RequestTrace>> getTraces() {
+        return new ResponseEntity<>(slowTraces.getTraces(), HttpStatus.OK);
+    }
+
+    /**
+     * Удаляет сохранённые трассировки
+     */
+    @DeleteMapping(value = "/traces")
+    public ResponseEntity<?> clearTraces() {
+        slowTraces.clear();
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+}
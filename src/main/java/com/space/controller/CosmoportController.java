@@ -1,31 +1,93 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.space.model.HistogramBucket;
 import com.space.model.Ship;
+import com.space.model.ShipImportResult;
+import com.space.model.ShipPage;
+import com.space.model.ShipStatistics;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
 import com.space.service.CosmoportService;
+import com.space.service.async.DbExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 @RestController
 @RequestMapping("/rest/ships")
 public class CosmoportController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int MAX_HISTOGRAM_BUCKETS = 1000;
+
+    // Количество строк NDJSON, сохраняемых одной транзакцией
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    private static final String CSV_HEADER = "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating\n";
+
     private final CosmoportService service;
+    private final DbExecutor dbExecutor;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader shipReader;
+    private final ObjectWriter viewWriter;
+    private final long exportTimeout;
 
     @Autowired
-    public CosmoportController(CosmoportService service) {
+    public CosmoportController(CosmoportService service, DbExecutor dbExecutor, ObjectMapper objectMapper,
+                               Environment env) {
         this.service = service;
+        this.dbExecutor = dbExecutor;
+        this.objectMapper = objectMapper;
+        this.shipReader = objectMapper.readerFor(Ship.class);
+        this.viewWriter = objectMapper.writerFor(ShipView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.exportTimeout = env.getProperty("cosmoport.export.timeout", Long.class, 0L);
     }
 
     /**
      * Возвращает список кораблей, подходящих к указанным параметрам
+     * Если страница не пустая, в заголовке X-Next-Cursor возвращается курсор для запроса следующей страницы
+     * Возвращает 400 ошибку, если курсор невалидный или получен для другого порядка сортировки
+     * ETag ответа - версия флота; если If-None-Match с ней совпадает, возвращается 304 без обращения к базе данных.
+     * Так же обрабатываются getPage, count и статистика
+     * Запрос к базе данных выполняется в пуле DbExecutor, как и в getPage, count, get и export;
+     * если очередь пула заполнена, возвращается 503 ошибка
      */
     @GetMapping(value = "")
-    public ResponseEntity<List<Ship>> getSome(@RequestParam(name = "name", required = false) String name,
+    public CompletableFuture<ResponseEntity<List<ShipView>>> getSome(@RequestParam(name = "name", required = false) String name,
                                               @RequestParam(name = "planet", required = false) String planet,
                                               @RequestParam(name = "shipType", required = false) ShipType shipType,
                                               @RequestParam(name = "after", required = false) Long after,
@@ -39,16 +101,174 @@ public class CosmoportController {
                                               @RequestParam(name = "maxRating", required = false) Double maxRating,
                                               @RequestParam(name = "order", defaultValue = "ID") ShipOrder order,
                                               @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
-                                              @RequestParam(name = "pageSize", required = false) Integer pageSize) {
-        return new ResponseEntity<>(service.getSome(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
-                minCrewSize, maxCrewSize, minRating, maxRating, order, pageNumber, pageSize), HttpStatus.OK);
+                                              @RequestParam(name = "pageSize", required = false) Integer pageSize,
+                                              @RequestParam(name = "cursor", required = false) String cursor,
+                                              WebRequest request) {
+        ShipCursor shipCursor = cursor == null ? null : ShipCursor.decode(cursor);
+        if (cursor != null && (shipCursor == null || shipCursor.getOrder() != order)) {
+            return completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        if (request.checkNotModified(service.getFleetVersion())) return completedFuture(null);
+        return async("getSome", () -> {
+            List<ShipView> ships = service.getSome(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                    minCrewSize, maxCrewSize, minRating, maxRating, order, pageNumber, pageSize, shipCursor);
+            return new ResponseEntity<>(ships, nextCursorHeaders(order, ships), HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Возвращает страницу кораблей, подходящих к указанным параметрам, вместе с их общим количеством.
+     * Принимает те же параметры, что и getSome, и позволяет обойтись одним запросом вместо двух
+     */
+    @GetMapping(value = "/page")
+    public CompletableFuture<ResponseEntity<ShipPage>> getPage(@RequestParam(name = "name", required = false) String name,
+                                            @RequestParam(name = "planet", required = false) String planet,
+                                            @RequestParam(name = "shipType", required = false) ShipType shipType,
+                                            @RequestParam(name = "after", required = false) Long after,
+                                            @RequestParam(name = "before", required = false) Long before,
+                                            @RequestParam(name = "isUsed", required = false) Boolean isUsed,
+                                            @RequestParam(name = "minSpeed", required = false) Double minSpeed,
+                                            @RequestParam(name = "maxSpeed", required = false) Double maxSpeed,
+                                            @RequestParam(name = "minCrewSize", required = false) Integer minCrewSize,
+                                            @RequestParam(name = "maxCrewSize", required = false) Integer maxCrewSize,
+                                            @RequestParam(name = "minRating", required = false) Double minRating,
+                                            @RequestParam(name = "maxRating", required = false) Double maxRating,
+                                            @RequestParam(name = "order", defaultValue = "ID") ShipOrder order,
+                                            @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
+                                            @RequestParam(name = "pageSize", required = false) Integer pageSize,
+                                            @RequestParam(name = "cursor", required = false) String cursor,
+                                            WebRequest request) {
+        ShipCursor shipCursor = cursor == null ? null : ShipCursor.decode(cursor);
+        if (cursor != null && (shipCursor == null || shipCursor.getOrder() != order)) {
+            return completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        if (request.checkNotModified(service.getFleetVersion())) return completedFuture(null);
+        return async("getPage", () -> {
+            ShipPage page = service.getPage(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                    minCrewSize, maxCrewSize, minRating, maxRating, order, pageNumber, pageSize, shipCursor);
+            return new ResponseEntity<>(page, nextCursorHeaders(order, page.getShips()), HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Возвращает сводные показатели кораблей, подходящих к указанным параметрам, одним запросом GROUP BY
+     * Принимает те же фильтры, что и count; параметр group задаёт поле группировки
+     */
+    @GetMapping(value = "/stats")
+    public ResponseEntity<List<ShipStatistics>> getStatistics(@RequestParam(name = "name", required = false) String name,
+                                                              @RequestParam(name = "planet", required = false) String planet,
+                                                              @RequestParam(name = "shipType", required = false) ShipType shipType,
+                                                              @RequestParam(name = "after", required = false) Long after,
+                                                              @RequestParam(name = "before", required = false) Long before,
+                                                              @RequestParam(name = "isUsed", required = false) Boolean isUsed,
+                                                              @RequestParam(name = "minSpeed", required = false) Double minSpeed,
+                                                              @RequestParam(name = "maxSpeed", required = false) Double maxSpeed,
+                                                              @RequestParam(name = "minCrewSize", required = false) Integer minCrewSize,
+                                                              @RequestParam(name = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                              @RequestParam(name = "minRating", required = false) Double minRating,
+                                                              @RequestParam(name = "maxRating", required = false) Double maxRating,
+                                                              @RequestParam(name = "group", defaultValue = "NONE") ShipGroup group,
+                                                              WebRequest request) {
+        if (request.checkNotModified(service.getFleetVersion())) return null;
+        List<ShipStatistics> statistics = service.getStatistics(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, group);
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Возвращает гистограмму скорости, размера экипажа или рейтинга кораблей, подходящих к указанным параметрам
+     * Принимает те же фильтры, что и count
+     * Возвращает 400 ошибку, если количество интервалов не от 1 до MAX_HISTOGRAM_BUCKETS
+     */
+    @GetMapping(value = "/stats/histogram")
+    public ResponseEntity<List<HistogramBucket>> getHistogram(@RequestParam(name = "name", required = false) String name,
+                                                              @RequestParam(name = "planet", required = false) String planet,
+                                                              @RequestParam(name = "shipType", required = false) ShipType shipType,
+                                                              @RequestParam(name = "after", required = false) Long after,
+                                                              @RequestParam(name = "before", required = false) Long before,
+                                                              @RequestParam(name = "isUsed", required = false) Boolean isUsed,
+                                                              @RequestParam(name = "minSpeed", required = false) Double minSpeed,
+                                                              @RequestParam(name = "maxSpeed", required = false) Double maxSpeed,
+                                                              @RequestParam(name = "minCrewSize", required = false) Integer minCrewSize,
+                                                              @RequestParam(name = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                              @RequestParam(name = "minRating", required = false) Double minRating,
+                                                              @RequestParam(name = "maxRating", required = false) Double maxRating,
+                                                              @RequestParam(name = "metric") ShipMetric metric,
+                                                              @RequestParam(name = "buckets", defaultValue = "10") Integer buckets,
+                                                              WebRequest request) {
+        if (buckets < 1 || buckets > MAX_HISTOGRAM_BUCKETS) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        if (request.checkNotModified(service.getFleetVersion())) return null;
+        List<HistogramBucket> histogram = service.getHistogram(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, metric, buckets);
+        return new ResponseEntity<>(histogram, HttpStatus.OK);
+    }
+
+    /**
+     * Выгружает все корабли, подходящие к указанным параметрам, в формате NDJSON (по умолчанию) или CSV.
+     * Принимает те же фильтры и порядок сортировки, что и getSome; корабли пишутся в ответ по мере чтения
+     * из базы данных, поэтому размер выгрузки не ограничен памятью сервера.
+     * Выгрузка выполняется в отдельном пуле DbExecutor со своим временем ожидания cosmoport.export.timeout
+     * (0 - без ограничения), а не с общим cosmoport.async.timeout; если пул занят, возвращается 503 ошибка
+     */
+    @GetMapping(value = "/export")
+    public DeferredResult<ResponseEntity<Void>> export(@RequestParam(name = "name", required = false) String name,
+                       @RequestParam(name = "planet", required = false) String planet,
+                       @RequestParam(name = "shipType", required = false) ShipType shipType,
+                       @RequestParam(name = "after", required = false) Long after,
+                       @RequestParam(name = "before", required = false) Long before,
+                       @RequestParam(name = "isUsed", required = false) Boolean isUsed,
+                       @RequestParam(name = "minSpeed", required = false) Double minSpeed,
+                       @RequestParam(name = "maxSpeed", required = false) Double maxSpeed,
+                       @RequestParam(name = "minCrewSize", required = false) Integer minCrewSize,
+                       @RequestParam(name = "maxCrewSize", required = false) Integer maxCrewSize,
+                       @RequestParam(name = "minRating", required = false) Double minRating,
+                       @RequestParam(name = "maxRating", required = false) Double maxRating,
+                       @RequestParam(name = "order", defaultValue = "ID") ShipOrder order,
+                       @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+                       HttpServletResponse response) {
+        // Тело пишется напрямую в ответ, поэтому задача завершается без ResponseEntity
+        DeferredResult<ResponseEntity<Void>> result = new DeferredResult<>(exportTimeout);
+        CompletableFuture<ResponseEntity<Void>> future;
+        try {
+            future = dbExecutor.submitStreaming("export", () -> {
+                response.setContentType(format.getContentType());
+                try {
+                    OutputStream out = response.getOutputStream();
+                    if (format == ExportFormat.CSV) {
+                        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                        writer.write(CSV_HEADER);
+                        service.export(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize,
+                                maxCrewSize, minRating, maxRating, order, ship -> writeCsv(writer, ship));
+                        writer.flush();
+                    } else {
+                        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                        generator.setRootValueSeparator(null);
+                        service.export(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize,
+                                maxCrewSize, minRating, maxRating, order, ship -> writeJson(generator, ship));
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            result.setResult(serviceUnavailable());
+            return result;
+        }
+        future.whenComplete((entity, error) -> {
+            if (error != null) result.setErrorResult(error);
+            else result.setResult(entity);
+        });
+        return result;
     }
 
     /**
      * Возвращает количество кораблей, подходящих к указанным параметрам
+     * С параметром approximate=true количество кораблей без фильтров берётся из кэша и может быть неточным
      */
     @GetMapping(value = "/count")
-    public ResponseEntity<Integer> count(@RequestParam(name = "name", required = false) String name,
+    public CompletableFuture<ResponseEntity<Integer>> count(@RequestParam(name = "name", required = false) String name,
                                          @RequestParam(name = "planet", required = false) String planet,
                                          @RequestParam(name = "shipType", required = false) ShipType shipType,
                                          @RequestParam(name = "after", required = false) Long after,
@@ -59,25 +279,32 @@ public class CosmoportController {
                                          @RequestParam(name = "minCrewSize", required = false) Integer minCrewSize,
                                          @RequestParam(name = "maxCrewSize", required = false) Integer maxCrewSize,
                                          @RequestParam(name = "minRating", required = false) Double minRating,
-                                         @RequestParam(name = "maxRating", required = false) Double maxRating) {
-        return new ResponseEntity<>(service.count(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
-                minCrewSize, maxCrewSize, minRating, maxRating), HttpStatus.OK);
+                                         @RequestParam(name = "maxRating", required = false) Double maxRating,
+                                         @RequestParam(name = "approximate", defaultValue = "false") boolean approximate,
+                                         WebRequest request) {
+        if (request.checkNotModified(service.getFleetVersion())) return completedFuture(null);
+        return async("count", () -> new ResponseEntity<>(service.count(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating, approximate), HttpStatus.OK));
     }
 
     /**
      * Пытается найти корабль по указанному id.
      * Возвращает 400 ошибку, если id невалидный
      * Возвращает 404 ошибку, если корабль в базе не найден
-     * Возвращает код 200 и корабль, если всё ок
+     * Возвращает код 200 и корабль, если всё ок; ETag ответа - версия корабля
+     * Возвращает код 304, если If-None-Match совпадает с версией корабля
      * @param id id корабля
      */
     @GetMapping(value = "/{id}")
-    public ResponseEntity<Ship> get(@PathVariable(name = "id") String id) {
+    public CompletableFuture<ResponseEntity<Ship>> get(@PathVariable(name = "id") String id) {
         long numId = parseId(id);
-        if (numId == -1) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        final Ship ship = service.get(numId);
-        return ship == null ? new ResponseEntity<>(HttpStatus.NOT_FOUND) :
-                new ResponseEntity<>(ship, HttpStatus.OK);
+        if (numId == -1) return completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        // Ответ 304 по ETag формирует HttpEntityMethodProcessor при записи ResponseEntity
+        return async("get", () -> {
+            final Ship ship = service.get(numId);
+            if (ship == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return ResponseEntity.ok().eTag(String.valueOf(ship.getVersion())).body(ship);
+        });
     }
 
     /**
@@ -88,14 +315,58 @@ public class CosmoportController {
      */
     @PostMapping(value = "/")
     public ResponseEntity<Ship> create(@RequestBody Ship ship) {
-        return service.create(ship) ? new ResponseEntity<>(service.get(ship.getId()), HttpStatus.OK) :
+        return service.create(ship) ? new ResponseEntity<>(ship, HttpStatus.OK) :
                 new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Массово создаёт корабли из JSON-массива одной транзакцией.
+     * Каждый корабль проверяется так же, как при создании по одному
+     * Возвращает код 200 и результат по каждому кораблю: статус 200 и id или статус 400
+     * @param ships переданные корабли
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ShipImportResult>> createAll(@RequestBody List<Ship> ships) {
+        List<ShipImportResult> results = new ArrayList<>(ships.size());
+        addImportResults(results, service.createAll(ships));
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Массово создаёт корабли из потока NDJSON (один корабль на строку), не читая весь запрос в память.
+     * Корабли сохраняются порциями по IMPORT_CHUNK_SIZE, каждая порция - отдельной транзакцией;
+     * строка, которую не удалось разобрать, получает статус 400
+     * Возвращает код 200 и результат по каждой непустой строке
+     */
+    @PostMapping(value = "/bulk", consumes = NDJSON_VALUE)
+    public ResponseEntity<List<ShipImportResult>> createAllStream(HttpServletRequest request) throws IOException {
+        List<ShipImportResult> results = new ArrayList<>();
+        List<Ship> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) continue;
+            Ship ship;
+            try {
+                ship = shipReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                ship = null;
+            }
+            chunk.add(ship);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                addImportResults(results, service.createAll(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) addImportResults(results, service.createAll(chunk));
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     /**
      * Пытается обновить корабль по указанном id
      * Возвращает 400 ошибку, если id невалидный
      * Возвращает 404 ошибку, если корабль в базе не найден
+     * Возвращает 409 ошибку, если корабль одновременно изменён другим запросом
      * Возвращает код 200 и обновлённый корабль, если всё ок
      * @param id id обновляемого корабля
      * @param ship обновляемый корабль
@@ -117,7 +388,12 @@ public class CosmoportController {
                 speed != null && (speed < 0.01 || speed > 0.99) ||
                 crewSize != null && (crewSize < 1 || crewSize > 9999)) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
-        final Ship updatedShip = service.update(ship, numId);
+        final Ship updatedShip;
+        try {
+            updatedShip = service.update(ship, numId);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
         return updatedShip == null ? new ResponseEntity<>(HttpStatus.NOT_FOUND) :
                 new ResponseEntity<>(updatedShip, HttpStatus.OK);
     }
@@ -137,13 +413,80 @@ public class CosmoportController {
                 new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Возвращает заголовки с курсором следующей страницы; для пустой страницы курсор не передаётся
+     */
+    private HttpHeaders nextCursorHeaders(ShipOrder order, List<ShipView> ships) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!ships.isEmpty()) headers.set(NEXT_CURSOR_HEADER, ShipCursor.of(order, ships.get(ships.size() - 1)).encode());
+        return headers;
+    }
+
+    /**
+     * Выполняет обработчик в пуле потоков базы данных, освобождая поток контейнера.
+     * Возвращает 503 ошибку с заголовком Retry-After, если очередь пула заполнена
+     * @param endpoint название обработчика для счётчиков пула
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> async(String endpoint, Supplier<ResponseEntity<T>> task) {
+        try {
+            return dbExecutor.submit(endpoint, task);
+        } catch (RejectedExecutionException e) {
+            return completedFuture(serviceUnavailable());
+        }
+    }
+
+    private static <T> ResponseEntity<T> serviceUnavailable() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private void writeJson(JsonGenerator generator, ShipView ship) {
+        try {
+            viewWriter.writeValue(generator, ship);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsv(Writer writer, ShipView ship) {
+        try {
+            writer.append(String.valueOf(ship.getId())).append(',')
+                    .append(csvField(ship.getName())).append(',')
+                    .append(csvField(ship.getPlanet())).append(',')
+                    .append(ship.getShipType().name()).append(',')
+                    .append(String.valueOf(ship.getProdDate())).append(',')
+                    .append(String.valueOf(ship.getUsed())).append(',')
+                    .append(String.valueOf(ship.getSpeed())).append(',')
+                    .append(String.valueOf(ship.getCrewSize())).append(',')
+                    .append(String.valueOf(ship.getRating())).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Значение в кавычках, если оно содержит разделитель, кавычку или перевод строки (RFC 4180)
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void addImportResults(List<ShipImportResult> results, List<Long> ids) {
+        for (Long id : ids) {
+            results.add(new ShipImportResult(results.size(), id == null ? 400 : 200, id));
+        }
+    }
+
     /**
      * Парсит переданную строку на предмет id
      * Возвращает -1, если id невалидный
      * @param str переданная строка
      * @return распарсенный id
      */
-    private long parseId(String str) {
+    static long parseId(String str) {
         double numId;
         try {
             numId = Double.parseDouble(str);
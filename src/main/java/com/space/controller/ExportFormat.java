@@ -0,0 +1,16 @@
+package com.space.controller;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"), // default
+    CSV("text/csv;charset=UTF-8");
+
+    private String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
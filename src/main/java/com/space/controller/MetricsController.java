@@ -0,0 +1,29 @@
+package com.space.controller;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+public class MetricsController {
+    private final PrometheusMeterRegistry registry;
+
+    @Autowired
+    public MetricsController(PrometheusMeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Возвращает метрики приложения в текстовом формате Prometheus
+     */
+    @GetMapping(value = "/metrics")
+    public void metrics(HttpServletResponse response) throws IOException {
+        response.setContentType(TextFormat.CONTENT_TYPE_004);
+        registry.scrape(response.getWriter());
+    }
+}
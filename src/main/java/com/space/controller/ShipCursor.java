@@ -0,0 +1,76 @@
+package com.space.controller;
+
+import com.space.model.ShipView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор keyset-пагинации: порядок сортировки, значение ключа сортировки и id последнего корабля страницы.
+ * Клиенту передаётся в виде непрозрачной строки
+ */
+public class ShipCursor {
+    private static final String SEPARATOR = ":";
+
+    private final ShipOrder order;
+    private final Number key;
+    private final long id;
+
+    public ShipCursor(ShipOrder order, Number key, long id) {
+        this.order = order;
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Создаёт курсор, указывающий на переданный корабль
+     * @param order порядок сортировки страницы
+     * @param ship последний корабль страницы
+     */
+    public static ShipCursor of(ShipOrder order, ShipView ship) {
+        Number key;
+        switch (order) {
+            case SPEED: key = ship.getSpeed(); break;
+            case DATE: key = ship.getProdDate(); break;
+            case RATING: key = ship.getRating(); break;
+            default: key = ship.getId();
+        }
+        return new ShipCursor(order, key, ship.getId());
+    }
+
+    /**
+     * Разбирает строку курсора
+     * Возвращает null, если курсор невалидный
+     * @param str переданная строка
+     */
+    public static ShipCursor decode(String str) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(str), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (parts.length != 3) return null;
+            ShipOrder order = ShipOrder.valueOf(parts[0]);
+            Number key = order == ShipOrder.SPEED || order == ShipOrder.RATING ?
+                    (Number) Double.valueOf(parts[1]) : (Number) Long.valueOf(parts[1]);
+            return new ShipCursor(order, key, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public String encode() {
+        String raw = order.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Number getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,18 @@
+package com.space.controller;
+
+public enum ShipGroup {
+    NONE(null), // default
+    SHIP_TYPE("shipType"),
+    PLANET("planet"),
+    IS_USED("isUsed");
+
+    private String fieldName;
+
+    ShipGroup(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+}
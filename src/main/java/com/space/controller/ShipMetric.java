@@ -0,0 +1,17 @@
+package com.space.controller;
+
+public enum ShipMetric {
+    SPEED("speed"),
+    CREW_SIZE("crewSize"),
+    RATING("rating");
+
+    private String fieldName;
+
+    ShipMetric(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+}
@@ -0,0 +1,83 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Счётчики запросов одного обработчика, выполняемых в пуле потоков базы данных
+ */
+@JsonPropertyOrder({"endpoint", "inFlight", "maxInFlight", "completed", "failed", "rejected", "expired", "avgMillis"})
+public class EndpointStats {
+
+    @JsonProperty("endpoint")
+    private final String endpoint;
+
+    // Запросы в очереди и в работе
+    @JsonProperty("inFlight")
+    private final int inFlight;
+
+    @JsonProperty("maxInFlight")
+    private final int maxInFlight;
+
+    @JsonProperty("completed")
+    private final long completed;
+
+    @JsonProperty("failed")
+    private final long failed;
+
+    // Запросы, отклонённые с кодом 503 из-за переполнения очереди
+    @JsonProperty("rejected")
+    private final long rejected;
+
+    // Запросы, не выполненные, потому что клиент уже получил ответ по тайм-ауту
+    @JsonProperty("expired")
+    private final long expired;
+
+    // Среднее время от постановки в очередь до завершения
+    @JsonProperty("avgMillis")
+    private final double avgMillis;
+
+    public EndpointStats(String endpoint, int inFlight, int maxInFlight, long completed, long failed, long rejected,
+                         long expired, double avgMillis) {
+        this.endpoint = endpoint;
+        this.inFlight = inFlight;
+        this.maxInFlight = maxInFlight;
+        this.completed = completed;
+        this.failed = failed;
+        this.rejected = rejected;
+        this.expired = expired;
+        this.avgMillis = avgMillis;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public double getAvgMillis() {
+        return avgMillis;
+    }
+}
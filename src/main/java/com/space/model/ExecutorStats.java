@@ -0,0 +1,56 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Состояние пула потоков, в котором выполняются запросы к базе данных
+ */
+@JsonPropertyOrder({"threads", "active", "queued", "queueCapacity", "endpoints"})
+public class ExecutorStats {
+
+    @JsonProperty("threads")
+    private final int threads;
+
+    @JsonProperty("active")
+    private final int active;
+
+    @JsonProperty("queued")
+    private final int queued;
+
+    @JsonProperty("queueCapacity")
+    private final int queueCapacity;
+
+    @JsonProperty("endpoints")
+    private final List<EndpointStats> endpoints;
+
+    public ExecutorStats(int threads, int active, int queued, int queueCapacity, List<EndpointStats> endpoints) {
+        this.threads = threads;
+        this.active = active;
+        this.queued = queued;
+        this.queueCapacity = queueCapacity;
+        this.endpoints = endpoints;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public List<EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+}
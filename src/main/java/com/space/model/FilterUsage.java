@@ -0,0 +1,41 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Сколько раз список кораблей запрашивался с данным набором фильтров и порядком сортировки
+ */
+@JsonPropertyOrder({"filters", "order", "count"})
+public class FilterUsage {
+
+    // Названия заданных параметров фильтра
+    @JsonProperty("filters")
+    private final List<String> filters;
+
+    @JsonProperty("order")
+    private final String order;
+
+    @JsonProperty("count")
+    private final long count;
+
+    public FilterUsage(List<String> filters, String order, long count) {
+        this.filters = filters;
+        this.order = order;
+        this.count = count;
+    }
+
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    public String getOrder() {
+        return order;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,38 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Интервал гистограммы [from, to) и количество кораблей в нём; последний интервал включает правую границу
+ */
+@JsonPropertyOrder({"from", "to", "count"})
+public class HistogramBucket {
+
+    @JsonProperty("from")
+    private final double from;
+
+    @JsonProperty("to")
+    private final double to;
+
+    @JsonProperty("count")
+    private final long count;
+
+    public HistogramBucket(double from, double to, long count) {
+        this.from = from;
+        this.to = to;
+        this.count = count;
+    }
+
+    public double getFrom() {
+        return from;
+    }
+
+    public double getTo() {
+        return to;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
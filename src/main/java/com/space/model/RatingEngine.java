@@ -0,0 +1,20 @@
+package com.space.model;
+
+/**
+ * Правило расчёта рейтинга корабля
+ */
+public interface RatingEngine {
+
+    /**
+     * Текущий год во вселенной, относительно которого считается возраст корабля
+     */
+    int getActualYear();
+
+    /**
+     * Возвращает рейтинг корабля, округлённый до сотых
+     * @param speed скорость корабля
+     * @param used использованный ли корабль
+     * @param prodDate дата выпуска, мс от начала эпохи
+     */
+    double rating(double speed, boolean used, long prodDate);
+}
@@ -0,0 +1,73 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Трассировка одного HTTP-запроса с деревом этапов обработки
+ */
+@JsonPropertyOrder({"id", "method", "uri", "status", "startedAt", "durationMillis", "span"})
+public class RequestTrace {
+
+    // Значение заголовка X-Cosmoport-Trace-Id в ответе на запрос
+    @JsonProperty("id")
+    private final long id;
+
+    @JsonProperty("method")
+    private final String method;
+
+    // Путь вместе со строкой запроса
+    @JsonProperty("uri")
+    private final String uri;
+
+    @JsonProperty("status")
+    private final int status;
+
+    @JsonProperty("startedAt")
+    private final long startedAt;
+
+    @JsonProperty("durationMillis")
+    private final double durationMillis;
+
+    @JsonProperty("span")
+    private final TraceSpan span;
+
+    public RequestTrace(long id, String method, String uri, int status, long startedAt, double durationMillis,
+                        TraceSpan span) {
+        this.id = id;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.durationMillis = durationMillis;
+        this.span = span;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public TraceSpan getSpan() {
+        return span;
+    }
+}
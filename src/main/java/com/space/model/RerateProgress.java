@@ -0,0 +1,78 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Состояние пересчёта рейтинга всех кораблей
+ */
+@JsonPropertyOrder({"status", "actualYear", "total", "processed", "startedAt", "finishedAt", "shipsPerSecond"})
+public class RerateProgress {
+
+    public enum Status {
+        IDLE, RUNNING, DONE, FAILED
+    }
+
+    @JsonProperty("status")
+    private final Status status;
+
+    // Текущий год, по которому пересчитывается рейтинг
+    @JsonProperty("actualYear")
+    private final int actualYear;
+
+    // Количество кораблей на момент запуска пересчёта
+    @JsonProperty("total")
+    private final long total;
+
+    @JsonProperty("processed")
+    private final long processed;
+
+    // Время запуска и завершения, мс от начала эпохи
+    @JsonProperty("startedAt")
+    private final Long startedAt;
+
+    @JsonProperty("finishedAt")
+    private final Long finishedAt;
+
+    @JsonProperty("shipsPerSecond")
+    private final double shipsPerSecond;
+
+    public RerateProgress(Status status, int actualYear, long total, long processed, Long startedAt, Long finishedAt,
+                          double shipsPerSecond) {
+        this.status = status;
+        this.actualYear = actualYear;
+        this.total = total;
+        this.processed = processed;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.shipsPerSecond = shipsPerSecond;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getActualYear() {
+        return actualYear;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public Long getStartedAt() {
+        return startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public double getShipsPerSecond() {
+        return shipsPerSecond;
+    }
+}
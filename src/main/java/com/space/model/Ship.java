@@ -1,18 +1,26 @@
 package com.space.model;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 @JsonAutoDetect
 @JsonPropertyOrder({"id", "name", "planet", "shipType", "prodDate", "isUsed", "speed", "crewSize", "rating"})
+@JsonSerialize(using = ShipSerializer.class)
+@JsonDeserialize(using = ShipDeserializer.class)
 @Entity
 @Table(name = "ship")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ship")
 public class Ship implements Serializable {
 
     @JsonProperty("id")
@@ -54,30 +62,23 @@ public class Ship implements Serializable {
     @Column(name = "rating")
     private Double rating;
 
+    // Версия для оптимистической блокировки; увеличивается при каждом изменении и служит ETag корабля
+    @JsonIgnore
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public Ship() {
     }
 
     /**
      * Дополнительная иницализация и округление полей
+     * @param ratingEngine текущее правило расчёта рейтинга
      */
-    public void addedInit() {
-        this.speed = doubleRound(speed);
-        this.rating = doubleRound(makeRating());
-    }
-
-    /**
-     * Инициализация рейтинга
-     * @return рейтинг
-     */
-    private Double makeRating() {
-        final int actualYear = 3019;
-        int prodYear = Integer.parseInt(new SimpleDateFormat("yyyy").format(prodDate));
-        return (80 * speed * (isUsed ? 0.5 : 1)) / (actualYear - prodYear + 1);
-    }
-
-    // Математическое округление до сотых
-    private Double doubleRound(Double num) {
-        return Math.round(num * 100.0) / 100.0;
+    public void addedInit(RatingEngine ratingEngine) {
+        double roundedSpeed = ShipRating.round(speed);
+        this.speed = roundedSpeed;
+        this.rating = ratingEngine.rating(roundedSpeed, isUsed, prodDate.getTime());
     }
 
     public Long getId() {
@@ -151,4 +152,12 @@ public class Ship implements Serializable {
     public void setRating(Double rating) {
         this.rating = rating;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,79 @@
+package com.space.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Потоковое чтение корабля без рефлексии.
+ * Числа, строки и логические значения в ожидаемом виде разбираются напрямую, остальное передаётся
+ * стандартным десериализаторам Jackson, поэтому прежние приведения ("0.8" как число, дата строкой) и ошибки сохраняются.
+ * Неизвестные поля обрабатываются по настройкам ObjectMapper, поле version игнорируется
+ */
+public class ShipDeserializer extends StdDeserializer<Ship> {
+
+    public ShipDeserializer() {
+        super(Ship.class);
+    }
+
+    @Override
+    public Ship deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (Ship) ctxt.handleUnexpectedToken(Ship.class, p);
+        }
+        Ship ship = new Ship();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String field = p.getCurrentName();
+            token = p.nextToken();
+            switch (field) {
+                case "id":
+                    ship.setId(token == JsonToken.VALUE_NUMBER_INT ? (Long) p.getLongValue() : read(p, ctxt, Long.class));
+                    break;
+                case "name":
+                    ship.setName(token == JsonToken.VALUE_STRING ? p.getText() : read(p, ctxt, String.class));
+                    break;
+                case "planet":
+                    ship.setPlanet(token == JsonToken.VALUE_STRING ? p.getText() : read(p, ctxt, String.class));
+                    break;
+                case "shipType":
+                    ship.setShipType(read(p, ctxt, ShipType.class));
+                    break;
+                case "prodDate":
+                    ship.setProdDate(token == JsonToken.VALUE_NUMBER_INT ? new Date(p.getLongValue()) : read(p, ctxt, Date.class));
+                    break;
+                case "isUsed":
+                    ship.setUsed(token == JsonToken.VALUE_TRUE ? Boolean.TRUE
+                            : token == JsonToken.VALUE_FALSE ? Boolean.FALSE : read(p, ctxt, Boolean.class));
+                    break;
+                case "speed":
+                    ship.setSpeed(token == JsonToken.VALUE_NUMBER_FLOAT ? (Double) p.getDoubleValue() : read(p, ctxt, Double.class));
+                    break;
+                case "crewSize":
+                    ship.setCrewSize(token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT
+                            ? (Integer) p.getIntValue() : read(p, ctxt, Integer.class));
+                    break;
+                case "rating":
+                    ship.setRating(token == JsonToken.VALUE_NUMBER_FLOAT ? (Double) p.getDoubleValue() : read(p, ctxt, Double.class));
+                    break;
+                case "version":
+                    p.skipChildren();
+                    break;
+                default:
+                    ctxt.handleUnknownProperty(p, this, Ship.class, field);
+            }
+        }
+        return ship;
+    }
+
+    private static <T> T read(JsonParser p, DeserializationContext ctxt, Class<T> type) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        return ctxt.readValue(p, type);
+    }
+}
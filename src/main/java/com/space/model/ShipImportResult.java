@@ -0,0 +1,40 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Результат импорта одного корабля при массовом создании
+ */
+@JsonPropertyOrder({"index", "status", "id"})
+public class ShipImportResult {
+
+    // Позиция корабля во входных данных
+    @JsonProperty("index")
+    private final int index;
+
+    // 200, если корабль создан; 400, если корабль невалидный
+    @JsonProperty("status")
+    private final int status;
+
+    @JsonProperty("id")
+    private final Long id;
+
+    public ShipImportResult(int index, int status, Long id) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,32 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Страница кораблей вместе с общим количеством кораблей, подходящих под фильтр
+ */
+@JsonPropertyOrder({"ships", "total"})
+public class ShipPage {
+
+    @JsonProperty("ships")
+    private final List<ShipView> ships;
+
+    @JsonProperty("total")
+    private final long total;
+
+    public ShipPage(List<ShipView> ships, long total) {
+        this.ships = ships;
+        this.total = total;
+    }
+
+    public List<ShipView> getShips() {
+        return ships;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,69 @@
+package com.space.model;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Расчёт рейтинга корабля относительно заданного текущего года без создания объектов.
+ * Год выпуска определяется двоичным поиском по заранее вычисленным началам лет в часовом поясе по умолчанию,
+ * поэтому результат совпадает с форматированием даты через SimpleDateFormat("yyyy").
+ * Класс не имеет изменяемого состояния и потокобезопасен
+ */
+public final class ShipRating implements RatingEngine {
+    // Текущий год по умолчанию; раньше него текущий год быть не может, так как это последний год выпуска кораблей
+    public static final int ACTUAL_YEAR = 3019;
+
+    // Диапазон лет с запасом покрывает допустимые даты выпуска (2800 - 3019 годы)
+    private static final int FIRST_YEAR = 2700;
+    private static final int LAST_YEAR = 3100;
+    private static final long[] YEAR_STARTS = yearStarts();
+
+    private final int actualYear;
+
+    public ShipRating(int actualYear) {
+        if (actualYear < ACTUAL_YEAR) throw new IllegalArgumentException("actualYear: " + actualYear);
+        this.actualYear = actualYear;
+    }
+
+    @Override
+    public int getActualYear() {
+        return actualYear;
+    }
+
+    @Override
+    public double rating(double speed, boolean used, long prodDate) {
+        return round((80 * speed * (used ? 0.5 : 1)) / (actualYear - year(prodDate) + 1));
+    }
+
+    // Математическое округление до сотых
+    public static double round(double num) {
+        return Math.round(num * 100.0) / 100.0;
+    }
+
+    /**
+     * Возвращает год указанного момента времени в часовом поясе по умолчанию
+     */
+    static int year(long millis) {
+        int index = Arrays.binarySearch(YEAR_STARTS, millis);
+        if (index < 0) index = -index - 2;
+        if (index < 0 || index >= YEAR_STARTS.length - 1) {
+            // Вне заранее вычисленного диапазона, на допустимых датах не встречается
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(millis);
+            return calendar.get(Calendar.YEAR);
+        }
+        return FIRST_YEAR + index;
+    }
+
+    private static long[] yearStarts() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getDefault());
+        long[] starts = new long[LAST_YEAR - FIRST_YEAR + 2];
+        for (int i = 0; i < starts.length; i++) {
+            calendar.clear();
+            calendar.set(FIRST_YEAR + i, Calendar.JANUARY, 1);
+            starts[i] = calendar.getTimeInMillis();
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,61 @@
+package com.space.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Потоковая запись корабля без рефлексии.
+ * Имена полей закодированы заранее, порядок и вид полей совпадают с прежним отражением через @JsonProperty:
+ * null-поля выводятся, prodDate пишется по настройкам ObjectMapper (по умолчанию миллисекундами)
+ */
+public class ShipSerializer extends StdSerializer<Ship> {
+    static final SerializableString ID = new SerializedString("id");
+    static final SerializableString NAME = new SerializedString("name");
+    static final SerializableString PLANET = new SerializedString("planet");
+    static final SerializableString SHIP_TYPE = new SerializedString("shipType");
+    static final SerializableString PROD_DATE = new SerializedString("prodDate");
+    static final SerializableString IS_USED = new SerializedString("isUsed");
+    static final SerializableString SPEED = new SerializedString("speed");
+    static final SerializableString CREW_SIZE = new SerializedString("crewSize");
+    static final SerializableString RATING = new SerializedString("rating");
+
+    public ShipSerializer() {
+        super(Ship.class);
+    }
+
+    @Override
+    public void serialize(Ship ship, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(ship);
+        gen.writeFieldName(ID);
+        if (ship.getId() == null) gen.writeNull();
+        else gen.writeNumber(ship.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(ship.getName());
+        gen.writeFieldName(PLANET);
+        gen.writeString(ship.getPlanet());
+        gen.writeFieldName(SHIP_TYPE);
+        if (ship.getShipType() == null) gen.writeNull();
+        else gen.writeString(ship.getShipType().name());
+        gen.writeFieldName(PROD_DATE);
+        if (ship.getProdDate() == null) gen.writeNull();
+        else provider.defaultSerializeDateValue(ship.getProdDate(), gen);
+        gen.writeFieldName(IS_USED);
+        if (ship.getUsed() == null) gen.writeNull();
+        else gen.writeBoolean(ship.getUsed());
+        gen.writeFieldName(SPEED);
+        if (ship.getSpeed() == null) gen.writeNull();
+        else gen.writeNumber(ship.getSpeed());
+        gen.writeFieldName(CREW_SIZE);
+        if (ship.getCrewSize() == null) gen.writeNull();
+        else gen.writeNumber(ship.getCrewSize());
+        gen.writeFieldName(RATING);
+        if (ship.getRating() == null) gen.writeNull();
+        else gen.writeNumber(ship.getRating());
+        gen.writeEndObject();
+    }
+}
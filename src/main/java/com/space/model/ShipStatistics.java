@@ -0,0 +1,106 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Сводные показатели группы кораблей
+ */
+@JsonPropertyOrder({"key", "count", "minSpeed", "maxSpeed", "avgSpeed", "minRating", "maxRating", "avgRating",
+        "minCrewSize", "maxCrewSize", "avgCrewSize"})
+public class ShipStatistics {
+
+    // Значение поля группировки; null, если корабли не группируются
+    @JsonProperty("key")
+    private final String key;
+
+    @JsonProperty("count")
+    private final long count;
+
+    @JsonProperty("minSpeed")
+    private final Double minSpeed;
+
+    @JsonProperty("maxSpeed")
+    private final Double maxSpeed;
+
+    @JsonProperty("avgSpeed")
+    private final Double avgSpeed;
+
+    @JsonProperty("minRating")
+    private final Double minRating;
+
+    @JsonProperty("maxRating")
+    private final Double maxRating;
+
+    @JsonProperty("avgRating")
+    private final Double avgRating;
+
+    @JsonProperty("minCrewSize")
+    private final Integer minCrewSize;
+
+    @JsonProperty("maxCrewSize")
+    private final Integer maxCrewSize;
+
+    @JsonProperty("avgCrewSize")
+    private final Double avgCrewSize;
+
+    public ShipStatistics(String key, long count, Double minSpeed, Double maxSpeed, Double avgSpeed,
+                          Double minRating, Double maxRating, Double avgRating,
+                          Integer minCrewSize, Integer maxCrewSize, Double avgCrewSize) {
+        this.key = key;
+        this.count = count;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.avgSpeed = avgSpeed;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+        this.avgRating = avgRating;
+        this.minCrewSize = minCrewSize;
+        this.maxCrewSize = maxCrewSize;
+        this.avgCrewSize = avgCrewSize;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public Double getAvgSpeed() {
+        return avgSpeed;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    public Double getAvgRating() {
+        return avgRating;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public Double getAvgCrewSize() {
+        return avgCrewSize;
+    }
+}
@@ -0,0 +1,84 @@
+package com.space.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Date;
+
+/**
+ * Неизменяемое представление корабля для списков и выгрузки.
+ * Читается из базы данных выражением конструктора (SELECT new ShipView(...)), поэтому не попадает
+ * в контекст Hibernate и не хранит копию состояния; поля примитивные.
+ * В JSON записывается так же, как Ship
+ */
+@JsonSerialize(using = ShipViewSerializer.class)
+public final class ShipView {
+    private final long id;
+    private final String name;
+    private final String planet;
+    private final ShipType shipType;
+    private final long prodDate;
+    private final boolean isUsed;
+    private final double speed;
+    private final int crewSize;
+    private final double rating;
+
+    /**
+     * Конструктор для запросов: типы параметров совпадают с типами полей Ship
+     */
+    public ShipView(long id, String name, String planet, ShipType shipType, Date prodDate, boolean isUsed,
+                    double speed, int crewSize, double rating) {
+        this(id, name, planet, shipType, prodDate.getTime(), isUsed, speed, crewSize, rating);
+    }
+
+    public ShipView(long id, String name, String planet, ShipType shipType, long prodDate, boolean isUsed,
+                    double speed, int crewSize, double rating) {
+        this.id = id;
+        this.name = name;
+        this.planet = planet;
+        this.shipType = shipType;
+        this.prodDate = prodDate;
+        this.isUsed = isUsed;
+        this.speed = speed;
+        this.crewSize = crewSize;
+        this.rating = rating;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    /**
+     * Дата выпуска, мс
+     */
+    public long getProdDate() {
+        return prodDate;
+    }
+
+    public boolean getUsed() {
+        return isUsed;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public int getCrewSize() {
+        return crewSize;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+}
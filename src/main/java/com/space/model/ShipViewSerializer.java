@@ -0,0 +1,52 @@
+package com.space.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static com.space.model.ShipSerializer.CREW_SIZE;
+import static com.space.model.ShipSerializer.ID;
+import static com.space.model.ShipSerializer.IS_USED;
+import static com.space.model.ShipSerializer.NAME;
+import static com.space.model.ShipSerializer.PLANET;
+import static com.space.model.ShipSerializer.PROD_DATE;
+import static com.space.model.ShipSerializer.RATING;
+import static com.space.model.ShipSerializer.SHIP_TYPE;
+import static com.space.model.ShipSerializer.SPEED;
+
+/**
+ * Потоковая запись представления корабля; имена, порядок и вид полей совпадают с ShipSerializer
+ */
+public class ShipViewSerializer extends StdSerializer<ShipView> {
+
+    public ShipViewSerializer() {
+        super(ShipView.class);
+    }
+
+    @Override
+    public void serialize(ShipView ship, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(ship);
+        gen.writeFieldName(ID);
+        gen.writeNumber(ship.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(ship.getName());
+        gen.writeFieldName(PLANET);
+        gen.writeString(ship.getPlanet());
+        gen.writeFieldName(SHIP_TYPE);
+        if (ship.getShipType() == null) gen.writeNull();
+        else gen.writeString(ship.getShipType().name());
+        gen.writeFieldName(PROD_DATE);
+        provider.defaultSerializeDateValue(ship.getProdDate(), gen);
+        gen.writeFieldName(IS_USED);
+        gen.writeBoolean(ship.getUsed());
+        gen.writeFieldName(SPEED);
+        gen.writeNumber(ship.getSpeed());
+        gen.writeFieldName(CREW_SIZE);
+        gen.writeNumber(ship.getCrewSize());
+        gen.writeFieldName(RATING);
+        gen.writeNumber(ship.getRating());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,68 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Участок трассировки запроса: этап обработки или SQL-запрос с вложенными участками
+ */
+@JsonPropertyOrder({"name", "detail", "startMillis", "durationMillis", "rows", "children"})
+public class TraceSpan {
+
+    @JsonProperty("name")
+    private final String name;
+
+    // Текст SQL-запроса или другие подробности этапа
+    @JsonProperty("detail")
+    private final String detail;
+
+    // Начало участка от начала запроса
+    @JsonProperty("startMillis")
+    private final double startMillis;
+
+    @JsonProperty("durationMillis")
+    private final double durationMillis;
+
+    // Строки, прочитанные или изменённые SQL-запросом
+    @JsonProperty("rows")
+    private final Long rows;
+
+    @JsonProperty("children")
+    private final List<TraceSpan> children;
+
+    public TraceSpan(String name, String detail, double startMillis, double durationMillis, Long rows,
+                     List<TraceSpan> children) {
+        this.name = name;
+        this.detail = detail;
+        this.startMillis = startMillis;
+        this.durationMillis = durationMillis;
+        this.rows = rows;
+        this.children = children;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public double getStartMillis() {
+        return startMillis;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public Long getRows() {
+        return rows;
+    }
+
+    public List<TraceSpan> getChildren() {
+        return children;
+    }
+}
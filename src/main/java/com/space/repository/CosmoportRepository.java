@@ -2,6 +2,23 @@ package com.space.repository;
 
 import com.space.model.Ship;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
-public interface CosmoportRepository extends JpaRepository<Ship, Long> {
+import java.util.List;
+
+public interface CosmoportRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship>,
+        CosmoportRepositoryCustom {
+
+    /**
+     * Возвращает id, название и планету всех кораблей для построения поискового индекса
+     */
+    @Query("select s.id, s.name, s.planet from Ship s")
+    List<Object[]> findSearchFields();
+
+    @Query("select min(s.id) from Ship s")
+    Long findMinId();
+
+    @Query("select max(s.id) from Ship s")
+    Long findMaxId();
 }
@@ -0,0 +1,87 @@
+package com.space.repository;
+
+import com.space.model.RatingEngine;
+import com.space.model.Ship;
+import com.space.model.ShipView;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Запросы к кораблям, которые не выражаются стандартными методами Spring Data.
+ * В кэш запросов Hibernate попадают только повторяющиеся запросы - страницы по номеру (findViews с cacheable);
+ * страницы по курсору, количества и статистика зависят от значений ключей и условий, почти не повторяются
+ * и только вытесняли бы из кэша полезные записи
+ */
+public interface CosmoportRepositoryCustom {
+
+    /**
+     * Возвращает одну страницу кораблей, подходящих под условие, без дополнительного запроса количества.
+     * Корабли читаются представлениями ShipView, а не сущностями
+     * @param spec условие выборки
+     * @param sort порядок сортировки
+     * @param offset количество пропускаемых строк
+     * @param limit максимальное количество строк
+     * @param cacheable поместить ли результат в кэш запросов
+     */
+    List<ShipView> findViews(Specification<Ship> spec, Sort sort, int offset, int limit, boolean cacheable);
+
+    /**
+     * Возвращает количество кораблей, подходящих под условие
+     * @param spec условие выборки
+     */
+    long count(Specification<Ship> spec);
+
+    /**
+     * Возвращает сводные показатели кораблей, подходящих под условие, одним запросом GROUP BY.
+     * Строка результата: значение поля группировки, количество, min/max/avg скорости, рейтинга и размера экипажа
+     * @param spec условие выборки
+     * @param groupField поле группировки; null - одна строка по всем кораблям
+     */
+    List<Object[]> aggregate(Specification<Ship> spec, String groupField);
+
+    /**
+     * Возвращает минимальное и максимальное значение числового поля среди кораблей, подходящих под условие
+     */
+    Object[] range(Specification<Ship> spec, String field);
+
+    /**
+     * Возвращает количество кораблей по интервалам числового поля одним запросом GROUP BY.
+     * Строка результата: номер интервала floor((значение - min) / width) и количество кораблей
+     */
+    List<Object[]> histogram(Specification<Ship> spec, String field, double min, double width);
+
+    /**
+     * Вставляет корабли JDBC-пакетами и проставляет им сгенерированные базой id.
+     * Кэш запросов сбрасывается после фиксации транзакции, иначе до неё его заново заполнили бы старые данные
+     * @param ships новые корабли
+     */
+    void insertAll(List<Ship> ships);
+
+    /**
+     * Передаёт все корабли, подходящие под условие, по одному в consumer.
+     * Строки читаются однонаправленным курсором порциями по FETCH_SIZE в представления ShipView,
+     * которые не попадают в контекст Hibernate, поэтому расход памяти не зависит от размера выборки.
+     * Должен вызываться внутри транзакции
+     * @param spec условие выборки
+     * @param sort порядок сортировки
+     * @param consumer получатель кораблей
+     */
+    void scroll(Specification<Ship> spec, Sort sort, Consumer<ShipView> consumer);
+
+    /**
+     * Пересчитывает рейтинг кораблей с id из диапазона [fromId, toId] по указанному правилу.
+     * Изменившиеся рейтинги записываются одним JDBC-пакетом в обход Hibernate с проверкой версии;
+     * корабли, изменённые после чтения порции, перечитываются с блокировкой и пересчитываются заново.
+     * После фиксации транзакции нужно вызвать evictCaches
+     * @return количество просмотренных кораблей
+     */
+    int rerate(long fromId, long toId, RatingEngine ratingEngine);
+
+    /**
+     * Сбрасывает корабли из кэша второго уровня и кэш запросов после изменений в обход Hibernate
+     */
+    void evictCaches();
+}
@@ -0,0 +1,261 @@
+package com.space.repository;
+
+import com.space.model.RatingEngine;
+import com.space.model.Ship;
+import com.space.model.ShipView;
+import org.hibernate.Cache;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class CosmoportRepositoryImpl implements CosmoportRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+    private static final String INSERT_SQL = "INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, " +
+            "crewSize, rating) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String RATING_FIELDS_SQL = "SELECT id, speed, isUsed, prodDate, rating, version FROM ship " +
+            "WHERE id BETWEEN ? AND ?";
+    private static final String RATING_FIELDS_LOCKED_SQL = "SELECT id, speed, isUsed, prodDate, rating, version " +
+            "FROM ship WHERE id = ? FOR UPDATE";
+    // Рейтинг записывается, только если корабль не изменён после чтения, иначе изменение PUT было бы потеряно
+    private static final String UPDATE_RATING_SQL = "UPDATE ship SET rating = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ShipView> findViews(Specification<Ship> spec, Sort sort, int offset, int limit, boolean cacheable) {
+        CriteriaQuery<ShipView> query = viewQuery(spec, sort);
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .setHint(QueryHints.CACHEABLE, cacheable)
+                .getResultList();
+    }
+
+    @Override
+    public long count(Specification<Ship> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        query.select(cb.count(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<Object[]> aggregate(Specification<Ship> spec, String groupField) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Ship> root = query.from(Ship.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        Path<Double> speed = root.get("speed");
+        Path<Double> rating = root.get("rating");
+        Path<Integer> crewSize = root.get("crewSize");
+        Expression<?> key = groupField == null ? cb.nullLiteral(String.class) : root.get(groupField);
+        query.multiselect(key, cb.count(root),
+                cb.min(speed), cb.max(speed), cb.avg(speed),
+                cb.min(rating), cb.max(rating), cb.avg(rating),
+                cb.min(crewSize), cb.max(crewSize), cb.avg(crewSize));
+        if (groupField != null) query.groupBy(root.get(groupField)).orderBy(cb.asc(root.get(groupField)));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public Object[] range(Specification<Ship> spec, String field) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Ship> root = query.from(Ship.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        Path<Number> value = root.get(field);
+        query.multiselect(cb.min(value), cb.max(value));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<Object[]> histogram(Specification<Ship> spec, String field, double min, double width) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Ship> root = query.from(Ship.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        // Числовые литералы Hibernate подставляет в текст запроса, поэтому выражение в SELECT и GROUP BY совпадает
+        Expression<Integer> bucket = cb.function("floor", Integer.class,
+                cb.quot(cb.diff(root.<Number>get(field), cb.literal(min)), cb.literal(width)));
+        query.multiselect(bucket, cb.count(root)).groupBy(bucket);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public void insertAll(List<Ship> ships) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < ships.size(); from += BATCH_SIZE) {
+                    List<Ship> batch = ships.subList(from, Math.min(from + BATCH_SIZE, ships.size()));
+                    for (Ship ship : batch) {
+                        statement.setString(1, ship.getName());
+                        statement.setString(2, ship.getPlanet());
+                        statement.setString(3, ship.getShipType().name());
+                        statement.setTimestamp(4, new Timestamp(ship.getProdDate().getTime()));
+                        statement.setBoolean(5, ship.getUsed());
+                        statement.setDouble(6, ship.getSpeed());
+                        statement.setInt(7, ship.getCrewSize());
+                        statement.setDouble(8, ship.getRating());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Ship ship : batch) {
+                            keys.next();
+                            ship.setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+        });
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evictQueryRegions();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                cache.evictQueryRegions();
+            }
+        });
+    }
+
+    @Override
+    public void scroll(Specification<Ship> spec, Sort sort, Consumer<ShipView> consumer) {
+        try (ScrollableResults results = entityManager.createQuery(viewQuery(spec, sort))
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept((ShipView) results.get(0));
+            }
+        }
+    }
+
+    /**
+     * Запрос представлений кораблей: SELECT new ShipView(...) по условию и в указанном порядке
+     */
+    private CriteriaQuery<ShipView> viewQuery(Specification<Ship> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ShipView> query = cb.createQuery(ShipView.class);
+        Root<Ship> root = query.from(Ship.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        query.select(cb.construct(ShipView.class, root.get("id"), root.get("name"), root.get("planet"),
+                root.get("shipType"), root.get("prodDate"), root.get("isUsed"), root.get("speed"),
+                root.get("crewSize"), root.get("rating")))
+                .orderBy(toOrders(sort, root, cb));
+        return query;
+    }
+
+    @Override
+    public int rerate(long fromId, long toId, RatingEngine ratingEngine) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            int read = 0;
+            try (PreparedStatement select = connection.prepareStatement(RATING_FIELDS_SQL);
+                 PreparedStatement selectLocked = connection.prepareStatement(RATING_FIELDS_LOCKED_SQL);
+                 PreparedStatement update = connection.prepareStatement(UPDATE_RATING_SQL)) {
+                select.setLong(1, fromId);
+                select.setLong(2, toId);
+                List<Long> changed = new ArrayList<>();
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        read++;
+                        addRatingUpdate(update, rows, ratingEngine, changed);
+                    }
+                }
+                List<Long> conflicts = executeRatingUpdates(update, changed);
+
+                // Корабли, изменённые после чтения порции, перечитываются с блокировкой строки
+                // и пересчитываются по их новым полям; после блокировки версия уже не меняется
+                changed.clear();
+                for (long id : conflicts) {
+                    selectLocked.setLong(1, id);
+                    try (ResultSet rows = selectLocked.executeQuery()) {
+                        if (rows.next()) addRatingUpdate(update, rows, ratingEngine, changed);
+                    }
+                }
+                executeRatingUpdates(update, changed);
+            }
+            return read;
+        });
+    }
+
+    /**
+     * Добавляет в пакет обновление рейтинга корабля из строки (id, speed, isUsed, prodDate, rating, version),
+     * если новый рейтинг отличается от сохранённого
+     */
+    private static void addRatingUpdate(PreparedStatement update, ResultSet row, RatingEngine ratingEngine,
+                                        List<Long> changed) throws SQLException {
+        long id = row.getLong(1);
+        double rating = ratingEngine.rating(row.getDouble(2), row.getBoolean(3), row.getTimestamp(4).getTime());
+        if (rating == row.getDouble(5)) return;
+        update.setDouble(1, rating);
+        update.setLong(2, id);
+        update.setLong(3, row.getLong(6));
+        update.addBatch();
+        changed.add(id);
+    }
+
+    /**
+     * Выполняет пакет обновлений рейтинга
+     * @return id кораблей, версия которых изменилась после чтения (обновление не затронуло строку)
+     */
+    private static List<Long> executeRatingUpdates(PreparedStatement update, List<Long> changed) throws SQLException {
+        List<Long> conflicts = new ArrayList<>();
+        if (changed.isEmpty()) return conflicts;
+        int[] counts = update.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+            // SUCCESS_NO_INFO (переписанный драйвером пакет) считается успешным обновлением
+            if (counts[i] == 0) conflicts.add(changed.get(i));
+        }
+        return conflicts;
+    }
+
+    @Override
+    public void evictCaches() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Ship.class);
+        cache.evictQueryRegions();
+    }
+}
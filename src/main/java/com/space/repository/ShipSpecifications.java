@@ -0,0 +1,107 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Фабрика условий для выборки кораблей на стороне базы данных.
+ * Каждый параметр фильтра превращается в отдельный SQL-предикат; null означает отсутствие условия
+ */
+public final class ShipSpecifications {
+    private static final char LIKE_ESCAPE = '!';
+
+    private ShipSpecifications() {
+    }
+
+    /**
+     * Возвращает условие, объединяющее все переданные параметры фильтра через AND
+     */
+    public static Specification<Ship> filter(String name, String planet, ShipType shipType, Long after, Long before,
+                                             Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                             Integer maxCrewSize, Double minRating, Double maxRating) {
+        return Specification.where(contains("name", name))
+                .and(contains("planet", planet))
+                .and(equal("shipType", shipType))
+                .and(dateAfter(after))
+                .and(dateBefore(before))
+                .and(equal("isUsed", isUsed))
+                .and(greaterOrEqual("speed", minSpeed))
+                .and(lessOrEqual("speed", maxSpeed))
+                .and(greaterOrEqual("crewSize", minCrewSize))
+                .and(lessOrEqual("crewSize", maxCrewSize))
+                .and(greaterOrEqual("rating", minRating))
+                .and(lessOrEqual("rating", maxRating));
+    }
+
+    /**
+     * Условие принадлежности id множеству; пустое множество не пропускает ни одной строки
+     * @param ids множество id или null, если условие не нужно
+     */
+    public static Specification<Ship> idIn(Collection<Long> ids) {
+        if (ids == null) return null;
+        if (ids.isEmpty()) return (root, query, cb) -> cb.disjunction();
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Условие keyset-пагинации: строки, идущие строго после пары (value, id) при сортировке по field, затем по id
+     * @param field поле сортировки
+     * @param value значение поля сортировки у последнего просмотренного корабля
+     * @param id id последнего просмотренного корабля
+     */
+    public static <T extends Comparable<? super T>> Specification<Ship> seek(String field, T value, long id) {
+        if ("id".equals(field)) return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get(field), value),
+                cb.and(cb.equal(root.get(field), value), cb.greaterThan(root.get("id"), id)));
+    }
+
+    /**
+     * Поиск подстроки без учёта регистра: lower(field) LIKE шаблон из ввода, приведённого к нижнему регистру
+     * посимвольно (Character.toLowerCase), так же, как в индексах в памяти (TrigramIndex).
+     * Пользовательский ввод экранируется и не трактуется как шаблон
+     */
+    private static Specification<Ship> contains(String field, String value) {
+        if (value == null) return null;
+        String pattern = "%" + escapeLike(value) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(field)), pattern, LIKE_ESCAPE);
+    }
+
+    private static Specification<Ship> equal(String field, Object value) {
+        if (value == null) return null;
+        return (root, query, cb) -> cb.equal(root.get(field), value);
+    }
+
+    private static Specification<Ship> dateAfter(Long after) {
+        if (after == null) return null;
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("prodDate"), new Date(after));
+    }
+
+    private static Specification<Ship> dateBefore(Long before) {
+        if (before == null) return null;
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("prodDate"), new Date(before));
+    }
+
+    private static <T extends Comparable<? super T>> Specification<Ship> greaterOrEqual(String field, T value) {
+        if (value == null) return null;
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get(field), value);
+    }
+
+    private static <T extends Comparable<? super T>> Specification<Ship> lessOrEqual(String field, T value) {
+        if (value == null) return null;
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get(field), value);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) sb.append(LIKE_ESCAPE);
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+}
@@ -1,34 +1,96 @@
 package com.space.service;
 
+import com.space.controller.ShipCursor;
+import com.space.controller.ShipGroup;
+import com.space.controller.ShipMetric;
 import com.space.controller.ShipOrder;
+import com.space.model.HistogramBucket;
 import com.space.model.Ship;
+import com.space.model.ShipPage;
+import com.space.model.ShipStatistics;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CosmoportService {
 
     /**
      * Возвращает количество кораблей с указанными параметрами
+     * @param approximate если true и фильтры не заданы, возвращает кэшированное общее количество кораблей
+     *                    без запроса к базе данных; при заданных фильтрах не учитывается
      */
     int count(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
               Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
-              Double maxRating);
+              Double maxRating, boolean approximate);
 
     /**
      * Возвращает список кораблей, подходящий по параметрам
+     * @param cursor курсор keyset-пагинации; если указан, страница начинается сразу после него,
+     *               а pageNumber не учитывается
      */
-    List<Ship> getSome(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+    List<ShipView> getSome(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
                        Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
-                       Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize);
+                       Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize, ShipCursor cursor);
+
+    /**
+     * Возвращает страницу кораблей, подходящих по параметрам, и их общее количество.
+     * Параметры совпадают с getSome; фильтр строится один раз для обоих запросов
+     */
+    ShipPage getPage(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                     Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                     Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize, ShipCursor cursor);
+
+    /**
+     * Возвращает версию флота, которая меняется при каждом изменении кораблей.
+     * Не обращается к базе данных
+     */
+    String getFleetVersion();
+
+    /**
+     * Возвращает сводные показатели кораблей, подходящих по параметрам: количество,
+     * минимальные, максимальные и средние скорость, рейтинг и размер экипажа
+     * @param group поле группировки; для NONE возвращается одна группа по всем подходящим кораблям
+     */
+    List<ShipStatistics> getStatistics(String name, String planet, ShipType shipType, Long after, Long before,
+                                       Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                       Integer maxCrewSize, Double minRating, Double maxRating, ShipGroup group);
+
+    /**
+     * Возвращает гистограмму значений поля среди кораблей, подходящих по параметрам.
+     * Диапазон от минимального до максимального значения делится на buckets равных интервалов
+     * @return интервалы по возрастанию; пустой список, если подходящих кораблей нет
+     */
+    List<HistogramBucket> getHistogram(String name, String planet, ShipType shipType, Long after, Long before,
+                                       Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                       Integer maxCrewSize, Double minRating, Double maxRating, ShipMetric metric,
+                                       int buckets);
+
+    /**
+     * Передаёт все корабли, подходящие по параметрам, в consumer в указанном порядке.
+     * Корабли читаются из базы данных потоком, без загрузки всей выборки в память
+     * @param consumer получатель кораблей; вызывается внутри транзакции чтения
+     */
+    void export(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                Double maxRating, ShipOrder order, Consumer<ShipView> consumer);
 
     /**
      * Создаёт новый корабль и помещает его в базу данных
-     * @param ship новый корабль
+     * @param ship новый корабль; при успешном создании в нём заполняются id и рейтинг
      * @return true, если удалось создать корабль; false, если нет
      */
     boolean create(Ship ship);
 
+    /**
+     * Создаёт корабли одной транзакцией с пакетной вставкой.
+     * Каждый корабль проверяется по тем же правилам, что и в create; невалидные корабли пропускаются
+     * @param ships новые корабли; null означает корабль, который не удалось прочитать
+     * @return id созданных кораблей в том же порядке; null для пропущенных кораблей
+     */
+    List<Long> createAll(List<Ship> ships);
+
     /**
      * Возвращает корабль по указанному id
      * @param id id корабля
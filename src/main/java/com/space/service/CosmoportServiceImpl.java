@@ -1,83 +1,256 @@
 package com.space.service;
 
+import com.space.controller.ShipCursor;
+import com.space.controller.ShipGroup;
+import com.space.controller.ShipMetric;
 import com.space.controller.ShipOrder;
+import com.space.model.HistogramBucket;
 import com.space.model.Ship;
+import com.space.model.ShipPage;
+import com.space.model.ShipStatistics;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
 import com.space.repository.CosmoportRepository;
+import com.space.repository.ShipSpecifications;
+import com.space.service.memory.ShipColumnIndex;
+import com.space.service.rating.RatingService;
+import com.space.service.search.ShipTextIndex;
+import com.space.service.trace.Span;
+import com.space.service.trace.Tracer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+/**
+ * Все методы по умолчанию выполняются в транзакции только для чтения: Hibernate не сбрасывает сессию
+ * перед запросами и при фиксации (FlushMode.MANUAL) и не хранит копии состояния загруженных кораблей.
+ * Изменяющие методы объявляют обычную транзакцию, каждый ровно одну.
+ * Количество и страницы кораблей отвечают из памяти (колоночный индекс, кэшированное общее количество)
+ * без транзакции и соединения с базой; транзакция только для чтения открывается лишь перед запросом к базе
+ */
 @Service
+@Transactional(readOnly = true)
 public class CosmoportServiceImpl implements CosmoportService {
+    // Время жизни кэшированного общего количества кораблей, мс
+    private static final long TOTAL_COUNT_TTL = 10_000;
+
     private final CosmoportRepository cosmoportRepository;
+    private final ShipTextIndex textIndex;
+    private final ShipColumnIndex columnIndex;
+    private final List<ShipIndex> indexes;
+    private final RatingService ratingService;
+    private final FilterStatistics filterStatistics;
+    private final FleetVersion fleetVersion;
+    private final Tracer tracer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final DistributionSummary nameCandidates;
+    private final DistributionSummary planetCandidates;
+    private final DistributionSummary pageRows;
+    private final AtomicLong totalCount = new AtomicLong();
+    private volatile long totalCountTime;
 
     @Autowired
-    public CosmoportServiceImpl(CosmoportRepository cosmoportRepository) {
+    public CosmoportServiceImpl(CosmoportRepository cosmoportRepository, ShipTextIndex textIndex,
+                                ShipColumnIndex columnIndex, List<ShipIndex> indexes, RatingService ratingService,
+                                FilterStatistics filterStatistics, FleetVersion fleetVersion, MeterRegistry registry,
+                                Tracer tracer, PlatformTransactionManager transactionManager) {
         this.cosmoportRepository = cosmoportRepository;
+        this.textIndex = textIndex;
+        this.columnIndex = columnIndex;
+        this.indexes = indexes;
+        this.ratingService = ratingService;
+        this.filterStatistics = filterStatistics;
+        this.fleetVersion = fleetVersion;
+        this.tracer = tracer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.nameCandidates = candidates(registry, "name");
+        this.planetCandidates = candidates(registry, "planet");
+        this.pageRows = DistributionSummary.builder("cosmoport.filter.rows")
+                .description("Ships returned by a filtered page query")
+                .register(registry);
+    }
+
+    // Число id, которые триграммный индекс передаёт в запрос вместо фильтра по строке
+    private static DistributionSummary candidates(MeterRegistry registry, String field) {
+        return DistributionSummary.builder("cosmoport.filter.candidates")
+                .description("Ship ids found by the text index for a filter")
+                .tag("field", field)
+                .register(registry);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public int count(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
                      Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
-                     Double maxRating) {
-        return (int) shipFilter(
-                name, planet, shipType, after, before, isUsed, minSpeed,
-                maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating)
-                .count();
+                     Double maxRating, boolean approximate) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        if (columnIndex.isEnabled()) return columnIndex.count(filter);
+        if (approximate && filter.isEmpty()) return (int) approximateTotal();
+        Specification<Ship> spec = shipFilter(filter);
+        return readOnlyTransaction.execute(status -> {
+            try (Span span = tracer.start("repository.count")) {
+                return (int) cosmoportRepository.count(spec);
+            }
+        });
     }
 
     @Override
-    public List<Ship> getSome(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ShipView> getSome(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
                               Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
-                              Double minRating, Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize) {
-        List<Ship> ships =
-                shipFilter(name, planet, shipType, after, before, isUsed, minSpeed,
-                        maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating)
-                .sorted((ship1, ship2) -> {
-                    switch (order) {
-                        case ID: return Long.compare(ship1.getId(), ship2.getId());
-                        case SPEED: return Double.compare(ship1.getSpeed(), ship2.getSpeed());
-                        case DATE: return Long.compare(ship1.getProdDate().getTime(), ship2.getProdDate().getTime());
-                        case RATING: return Double.compare(ship1.getRating(), ship2.getRating());
-                    }
-                    return 0;
-                })
-                .collect(Collectors.toList());
-        pageSize = pageSize == null ? 3 : pageSize;
-        int startIndex = (pageNumber == null ? 0 : pageNumber) * pageSize;
-        return ships.subList(startIndex, Math.min(startIndex + pageSize, ships.size()));
+                              Double minRating, Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize,
+                              ShipCursor cursor) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        filterStatistics.record(filter, order);
+        if (columnIndex.isEnabled()) {
+            return columnIndex.find(filter, order, pageOffset(pageNumber, pageSize, cursor), pageSize(pageSize), cursor)
+                    .getShips();
+        }
+        Specification<Ship> spec = shipFilter(filter);
+        return readOnlyTransaction.execute(status -> page(spec, order, pageNumber, pageSize, cursor));
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ShipPage getPage(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                            Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                            Double minRating, Double maxRating, ShipOrder order, Integer pageNumber, Integer pageSize,
+                            ShipCursor cursor) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        filterStatistics.record(filter, order);
+        if (columnIndex.isEnabled()) {
+            return columnIndex.find(filter, order, pageOffset(pageNumber, pageSize, cursor), pageSize(pageSize), cursor);
+        }
+        Specification<Ship> spec = shipFilter(filter);
+        return readOnlyTransaction.execute(status -> {
+            List<ShipView> ships = page(spec, order, pageNumber, pageSize, cursor);
+            // Неполная страница при обычной пагинации уже определяет общее количество, COUNT не нужен
+            int offset = pageOffset(pageNumber, pageSize, cursor);
+            boolean lastPage = cursor == null && ships.size() < pageSize(pageSize) && (offset == 0 || !ships.isEmpty());
+            if (lastPage) return new ShipPage(ships, offset + ships.size());
+            try (Span span = tracer.start("repository.count")) {
+                return new ShipPage(ships, cosmoportRepository.count(spec));
+            }
+        });
+    }
+
+
+    // Версия хранится в памяти, транзакция не нужна
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getFleetVersion() {
+        return fleetVersion.get();
+    }
 
     @Override
+    public List<ShipStatistics> getStatistics(String name, String planet, ShipType shipType, Long after, Long before,
+                                              Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                              Integer maxCrewSize, Double minRating, Double maxRating,
+                                              ShipGroup group) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        List<ShipStatistics> statistics = new ArrayList<>();
+        for (Object[] row : cosmoportRepository.aggregate(shipFilter(filter), group.getFieldName())) {
+            statistics.add(new ShipStatistics(row[0] == null ? null : String.valueOf(row[0]), (Long) row[1],
+                    (Double) row[2], (Double) row[3], (Double) row[4],
+                    (Double) row[5], (Double) row[6], (Double) row[7],
+                    (Integer) row[8], (Integer) row[9], (Double) row[10]));
+        }
+        return statistics;
+    }
+
+    @Override
+    public List<HistogramBucket> getHistogram(String name, String planet, ShipType shipType, Long after, Long before,
+                                              Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                              Integer maxCrewSize, Double minRating, Double maxRating,
+                                              ShipMetric metric, int buckets) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        Specification<Ship> spec = shipFilter(filter);
+        Object[] range = cosmoportRepository.range(spec, metric.getFieldName());
+        List<HistogramBucket> histogram = new ArrayList<>(buckets);
+        if (range[0] == null) return histogram;
+
+        double min = ((Number) range[0]).doubleValue();
+        double max = ((Number) range[1]).doubleValue();
+        // Все значения одинаковые: один интервал из одной точки
+        if (min == max) buckets = 1;
+        double width = min == max ? 1 : (max - min) / buckets;
+        long[] counts = new long[buckets];
+        for (Object[] row : cosmoportRepository.histogram(spec, metric.getFieldName(), min, width)) {
+            // Максимальное значение попадает в номер buckets и относится к последнему интервалу
+            int bucket = Math.max(0, Math.min(buckets - 1, ((Number) row[0]).intValue()));
+            counts[bucket] += ((Number) row[1]).longValue();
+        }
+        for (int i = 0; i < buckets; i++) {
+            histogram.add(new HistogramBucket(min + i * width, i == buckets - 1 ? max : min + (i + 1) * width,
+                    counts[i]));
+        }
+        return histogram;
+    }
+
+    @Override
+    public void export(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                       Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                       Double maxRating, ShipOrder order, Consumer<ShipView> consumer) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+        cosmoportRepository.scroll(shipFilter(filter), sort(order), consumer);
+    }
+
+    @Override
+    @Transactional
     public boolean create(Ship ship) {
-        final long beforeDate = 26192246400000L;
-        final long afterDate = 33103209600000L;
-        String name = ship.getName();
-        String planet = ship.getPlanet();
-        ShipType shipType = ship.getShipType();
-        Date prodDate = ship.getProdDate();
-        Boolean isUsed = ship.getUsed();
-        Double speed = ship.getSpeed();
-        Integer crewSize = ship.getCrewSize();
-        if ((name == null || name.equals("") || name.length() > 50) ||
-                (planet == null || planet.equals("") || planet.length() > 50) ||
-                shipType == null ||
-                (prodDate == null || !(prodDate.getTime() >= beforeDate && prodDate.getTime() <= afterDate)) ||
-                speed == null || !(speed >= 0.01 && speed <= 0.99) ||
-                crewSize == null || !(crewSize >= 1 && crewSize <= 9999)) return false;
-        if (isUsed == null) ship.setUsed(false);
-        ship.addedInit();
+        if (!prepare(ship)) return false;
         cosmoportRepository.save(ship);
+        afterCommit(() -> {
+            indexes.forEach(index -> index.put(ship));
+            totalCount.incrementAndGet();
+        });
         return true;
     }
 
+    @Override
+    @Transactional
+    public List<Long> createAll(List<Ship> ships) {
+        List<Ship> valid = new ArrayList<>(ships.size());
+        for (Ship ship : ships) {
+            if (ship == null) continue;
+            ship.setId(null);
+            if (prepare(ship)) valid.add(ship);
+        }
+        cosmoportRepository.insertAll(valid);
+        afterCommit(() -> {
+            valid.forEach(ship -> indexes.forEach(index -> index.put(ship)));
+            totalCount.addAndGet(valid.size());
+        });
+
+        List<Long> ids = new ArrayList<>(ships.size());
+        for (Ship ship : ships) ids.add(ship == null ? null : ship.getId());
+        return ids;
+    }
+
     @Override
     public Ship get(long id) {
         try {
@@ -88,10 +261,15 @@ public class CosmoportServiceImpl implements CosmoportService {
         }
     }
 
+    /**
+     * Корабль читается один раз (обычно из кэша второго уровня) и изменяется внутри транзакции,
+     * поэтому в базу уходит только один UPDATE при фиксации
+     */
     @Override
+    @Transactional
     public Ship update(Ship ship, long id) {
-        if (!cosmoportRepository.existsById(id)) return null;
         final Ship oldShip = get(id);
+        if (oldShip == null) return null;
         String name = ship.getName();
         String planet = ship.getPlanet();
         ShipType shipType = ship.getShipType();
@@ -108,36 +286,150 @@ public class CosmoportServiceImpl implements CosmoportService {
         if (speed != null) oldShip.setSpeed(speed);
         if (crewSize != null) oldShip.setCrewSize(crewSize);
 
-        oldShip.addedInit();
-        cosmoportRepository.save(oldShip);
+        oldShip.addedInit(ratingService.getRatingEngine());
+        afterCommit(() -> indexes.forEach(index -> index.put(oldShip)));
         return oldShip;
     }
 
+    /**
+     * Удаление найденного корабля вместо массового DELETE: массовые операции HQL
+     * сбрасывают весь регион кэша второго уровня
+     */
     @Override
+    @Transactional
     public boolean delete(long id) {
-        if (!cosmoportRepository.existsById(id)) return false;
-        cosmoportRepository.deleteById(id);
+        final Ship ship = get(id);
+        if (ship == null) return false;
+        cosmoportRepository.delete(ship);
+        afterCommit(() -> {
+            indexes.forEach(index -> index.remove(id));
+            totalCount.decrementAndGet();
+        });
+        return true;
+    }
+
+    /**
+     * Применяет изменение к индексам в памяти и кэшированному количеству только после фиксации транзакции:
+     * при откате (например, при конфликте версий на flush) индексы не должны отдавать отклонённые значения.
+     * FleetVersion, получив уведомление здесь, увеличивает версию уже после завершения транзакции
+     */
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * Проверяет поля нового корабля, заполняет значения по умолчанию и рейтинг
+     * @return true, если корабль можно сохранить
+     */
+    private boolean prepare(Ship ship) {
+        final long beforeDate = 26192246400000L;
+        final long afterDate = 33103209600000L;
+        String name = ship.getName();
+        String planet = ship.getPlanet();
+        ShipType shipType = ship.getShipType();
+        Date prodDate = ship.getProdDate();
+        Boolean isUsed = ship.getUsed();
+        Double speed = ship.getSpeed();
+        Integer crewSize = ship.getCrewSize();
+        if ((name == null || name.equals("") || name.length() > 50) ||
+                (planet == null || planet.equals("") || planet.length() > 50) ||
+                shipType == null ||
+                (prodDate == null || !(prodDate.getTime() >= beforeDate && prodDate.getTime() <= afterDate)) ||
+                speed == null || !(speed >= 0.01 && speed <= 0.99) ||
+                crewSize == null || !(crewSize >= 1 && crewSize <= 9999)) return false;
+        if (isUsed == null) ship.setUsed(false);
+        ship.addedInit(ratingService.getRatingEngine());
         return true;
     }
 
     /**
      * Сервисный метод
-     * Возвращает отфильтрованный список всех кораблей в базе
+     * Возвращает условие выборки кораблей, которое целиком выполняется в базе данных.
+     * Фильтры по названию и планете по возможности заменяются списком id из триграммного индекса
      */
-    private Stream<Ship> shipFilter(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating) {
-        return cosmoportRepository.findAll()
-                .stream()
-                .filter(x -> name == null || x.getName().matches(".*" + name + ".*"))
-                .filter(x -> planet == null || x.getPlanet().matches(".*" + planet + ".*"))
-                .filter(x -> shipType == null || x.getShipType() == shipType)
-                .filter(x -> after == null || x.getProdDate().getTime() >= after)
-                .filter(x -> before == null || x.getProdDate().getTime() <= before)
-                .filter(x -> isUsed == null || x.getUsed() == isUsed)
-                .filter(x -> minSpeed == null || x.getSpeed() >= minSpeed)
-                .filter(x -> maxSpeed == null || x.getSpeed() <= maxSpeed)
-                .filter(x -> minCrewSize == null || x.getCrewSize() >= minCrewSize)
-                .filter(x -> maxCrewSize == null || x.getCrewSize() <= maxCrewSize)
-                .filter(x -> minRating == null || x.getRating() >= minRating)
-                .filter(x -> maxRating == null || x.getRating() <= maxRating);
+    private Specification<Ship> shipFilter(ShipFilter filter) {
+        try (Span span = tracer.start("service.filter")) {
+            Set<Long> nameIds = textIndex.findByName(filter.getName());
+            Set<Long> planetIds = textIndex.findByPlanet(filter.getPlanet());
+            if (nameIds != null) nameCandidates.record(nameIds.size());
+            if (planetIds != null) planetCandidates.record(planetIds.size());
+            return ShipSpecifications.filter(nameIds == null ? filter.getName() : null,
+                    planetIds == null ? filter.getPlanet() : null, filter.getShipType(), filter.getAfter(),
+                    filter.getBefore(), filter.getUsed(), filter.getMinSpeed(), filter.getMaxSpeed(),
+                    filter.getMinCrewSize(), filter.getMaxCrewSize(), filter.getMinRating(), filter.getMaxRating())
+                    .and(ShipSpecifications.idIn(nameIds))
+                    .and(ShipSpecifications.idIn(planetIds));
+        }
+    }
+
+    /**
+     * Возвращает общее количество кораблей из кэша.
+     * Кэш обновляется запросом COUNT(*) в собственной транзакции репозитория не чаще раза в TOTAL_COUNT_TTL мс,
+     * а между обновлениями поддерживается при создании и удалении кораблей
+     */
+    private long approximateTotal() {
+        long now = System.currentTimeMillis();
+        if (now - totalCountTime > TOTAL_COUNT_TTL) {
+            totalCount.set(cosmoportRepository.count());
+            totalCountTime = now;
+        }
+        return totalCount.get();
+    }
+
+    /**
+     * Возвращает страницу кораблей, подходящих под условие
+     */
+    private List<ShipView> page(Specification<Ship> filter, ShipOrder order, Integer pageNumber, Integer pageSize,
+                            ShipCursor cursor) {
+        Specification<Ship> spec = cursor == null ? filter : filter.and(seek(cursor));
+        // Сортировка и пагинация выполняются в том же SQL-запросе, что и фильтрация
+        try (Span span = tracer.start("repository.findAll", order.name())) {
+            // Страницы по курсору начинаются с произвольного ключа и в кэше запросов не повторяются
+            List<ShipView> ships = cosmoportRepository.findViews(spec, sort(order),
+                    pageOffset(pageNumber, pageSize, cursor), pageSize(pageSize), cursor == null);
+            pageRows.record(ships.size());
+            if (span != null) span.setRows(ships.size());
+            return ships;
+        }
+    }
+
+    private int pageSize(Integer pageSize) {
+        return pageSize == null ? 3 : pageSize;
+    }
+
+    // При keyset-пагинации страница начинается сразу после курсора
+    private int pageOffset(Integer pageNumber, Integer pageSize, ShipCursor cursor) {
+        if (cursor != null) return 0;
+        return (pageNumber == null ? 0 : pageNumber) * pageSize(pageSize);
+    }
+
+    /**
+     * Порядок сортировки в базе данных; при равенстве ключа корабли упорядочиваются по id
+     */
+    private Sort sort(ShipOrder order) {
+        Sort byId = Sort.by(ShipOrder.ID.getFieldName());
+        return order == ShipOrder.ID ? byId : Sort.by(order.getFieldName()).and(byId);
+    }
+
+    /**
+     * Условие продолжения выборки после корабля, на который указывает курсор
+     */
+    private Specification<Ship> seek(ShipCursor cursor) {
+        long id = cursor.getId();
+        switch (cursor.getOrder()) {
+            case SPEED: return ShipSpecifications.seek("speed", cursor.getKey().doubleValue(), id);
+            case DATE: return ShipSpecifications.seek("prodDate", new Date(cursor.getKey().longValue()), id);
+            case RATING: return ShipSpecifications.seek("rating", cursor.getKey().doubleValue(), id);
+        }
+        return ShipSpecifications.seek("id", id, id);
     }
 }
@@ -0,0 +1,75 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.FilterUsage;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики запросов списка кораблей по сочетаниям заданных фильтров и порядку сортировки.
+ * По ним выбираются индексы таблицы ship. Сочетание кодируется битовой маской заданных параметров
+ * и порядком сортировки; это номер счётчика в массиве, поэтому учёт запроса не создаёт объектов,
+ * кроме самого счётчика при первом запросе с новым сочетанием
+ */
+@Component
+public class FilterStatistics {
+    private static final String[] PARAMETERS = {"name", "planet", "shipType", "after", "before", "isUsed",
+            "minSpeed", "maxSpeed", "minCrewSize", "maxCrewSize", "minRating", "maxRating"};
+    private static final ShipOrder[] ORDERS = ShipOrder.values();
+
+    private final AtomicReferenceArray<LongAdder> counters =
+            new AtomicReferenceArray<>((1 << PARAMETERS.length) * ORDERS.length);
+
+    /**
+     * Учитывает запрос с указанным фильтром и порядком сортировки
+     */
+    public void record(ShipFilter filter, ShipOrder order) {
+        int mask = bit(filter.getName(), 0) | bit(filter.getPlanet(), 1) | bit(filter.getShipType(), 2)
+                | bit(filter.getAfter(), 3) | bit(filter.getBefore(), 4) | bit(filter.getUsed(), 5)
+                | bit(filter.getMinSpeed(), 6) | bit(filter.getMaxSpeed(), 7)
+                | bit(filter.getMinCrewSize(), 8) | bit(filter.getMaxCrewSize(), 9)
+                | bit(filter.getMinRating(), 10) | bit(filter.getMaxRating(), 11);
+        int key = mask * ORDERS.length + order.ordinal();
+        LongAdder counter = counters.get(key);
+        if (counter == null) {
+            counters.compareAndSet(key, null, new LongAdder());
+            counter = counters.get(key);
+        }
+        counter.increment();
+    }
+
+    /**
+     * Возвращает учтённые сочетания фильтров, начиная с самых частых
+     */
+    public List<FilterUsage> getUsage() {
+        List<FilterUsage> usage = new ArrayList<>();
+        for (int key = 0; key < counters.length(); key++) {
+            LongAdder counter = counters.get(key);
+            if (counter == null) continue;
+            int mask = key / ORDERS.length;
+            List<String> filters = new ArrayList<>();
+            for (int i = 0; i < PARAMETERS.length; i++) {
+                if ((mask & (1 << i)) != 0) filters.add(PARAMETERS[i]);
+            }
+            usage.add(new FilterUsage(filters, ORDERS[key % ORDERS.length].name(), counter.sum()));
+        }
+        usage.sort(Comparator.comparingLong(FilterUsage::getCount).reversed());
+        return usage;
+    }
+
+    /**
+     * Сбрасывает все счётчики
+     */
+    public void reset() {
+        for (int key = 0; key < counters.length(); key++) counters.set(key, null);
+    }
+
+    private static int bit(Object value, int index) {
+        return value == null ? 0 : 1 << index;
+    }
+}
@@ -0,0 +1,58 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчик изменений флота, по которому строится ETag списков и количества кораблей.
+ * Получает уведомления об изменениях как индекс кораблей; внутри транзакции счётчик увеличивается
+ * только после её завершения, чтобы новый ETag никогда не выдавался вместе со старыми данными.
+ * Значение начинается с момента запуска приложения, поэтому после перезапуска старые ETag не совпадают
+ */
+@Component
+public class FleetVersion implements ShipIndex {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * Возвращает текущую версию флота
+     */
+    public String get() {
+        return epoch + "-" + counter.get();
+    }
+
+    /**
+     * Отмечает изменение кораблей в обход сервиса
+     */
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    counter.incrementAndGet();
+                }
+            });
+        } else {
+            counter.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void put(Ship ship) {
+        changed();
+    }
+
+    @Override
+    public void remove(long id) {
+        changed();
+    }
+
+    @Override
+    public void reload() {
+        changed();
+    }
+}
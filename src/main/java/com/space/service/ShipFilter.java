@@ -0,0 +1,97 @@
+package com.space.service;
+
+import com.space.model.ShipType;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Параметры фильтра кораблей; null означает, что условие по полю не задано
+ */
+public class ShipFilter {
+    private final String name;
+    private final String planet;
+    private final ShipType shipType;
+    private final Long after;
+    private final Long before;
+    private final Boolean isUsed;
+    private final Double minSpeed;
+    private final Double maxSpeed;
+    private final Integer minCrewSize;
+    private final Integer maxCrewSize;
+    private final Double minRating;
+    private final Double maxRating;
+
+    public ShipFilter(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                      Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                      Double maxRating) {
+        this.name = name;
+        this.planet = planet;
+        this.shipType = shipType;
+        this.after = after;
+        this.before = before;
+        this.isUsed = isUsed;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minCrewSize = minCrewSize;
+        this.maxCrewSize = maxCrewSize;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+    }
+
+    /**
+     * Возвращает true, если не задано ни одно условие
+     */
+    public boolean isEmpty() {
+        return Stream.of(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating).allMatch(Objects::isNull);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public Boolean getUsed() {
+        return isUsed;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+}
@@ -0,0 +1,26 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+/**
+ * Структура в памяти, построенная по кораблям из базы данных.
+ * Сервис сообщает индексу обо всех изменениях кораблей, которые проходят через него
+ */
+public interface ShipIndex {
+
+    /**
+     * Добавляет корабль или обновляет уже проиндексированный
+     */
+    void put(Ship ship);
+
+    /**
+     * Удаляет корабль из индекса
+     * @param id id удалённого корабля
+     */
+    void remove(long id);
+
+    /**
+     * Перестраивает индекс по текущему содержимому базы данных
+     */
+    void reload();
+}
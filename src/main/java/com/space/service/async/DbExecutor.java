@@ -0,0 +1,158 @@
+package com.space.service.async;
+
+import com.space.model.EndpointStats;
+import com.space.model.ExecutorStats;
+import com.space.service.metrics.SqlStatementCounter;
+import com.space.service.trace.Span;
+import com.space.service.trace.Tracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул потоков для обработчиков, обращающихся к базе данных.
+ * Потоки контейнера только принимают запрос и освобождаются, пока запрос ждёт в очереди или выполняется.
+ * Размер пула (cosmoport.db.threads) соответствует размеру пула соединений, длина очереди задаётся
+ * свойством cosmoport.db.queueSize; при переполнении очереди задача сразу отклоняется.
+ * Для каждого обработчика ведутся счётчики одновременных, завершённых и отклонённых запросов.
+ * Состояние пула публикуется в реестр метрик (executor.* с тегом name=db).
+ * Потоковые выгрузки выполняются в отдельном небольшом пуле (name=export).
+ * Задача, которая дождалась потока позже тайм-аута запроса (cosmoport.async.timeout, для выгрузок
+ * cosmoport.export.timeout), не выполняется: клиент уже получил 503 ошибку, а её future завершается TimeoutException
+ */
+@Component
+public class DbExecutor implements DisposableBean {
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor streamingExecutor;
+    private final int queueCapacity;
+    private final long timeout;
+    private final long streamingTimeout;
+    private final Map<String, EndpointCounters> counters = new ConcurrentHashMap<>();
+    private final SqlStatementCounter statementCounter;
+    private final Tracer tracer;
+
+    @Autowired
+    public DbExecutor(Environment env, MeterRegistry registry, SqlStatementCounter statementCounter, Tracer tracer) {
+        this.statementCounter = statementCounter;
+        this.tracer = tracer;
+        this.queueCapacity = env.getProperty("cosmoport.db.queueSize", Integer.class, 200);
+        this.timeout = env.getProperty("cosmoport.async.timeout", Long.class, 30000L);
+        this.streamingTimeout = env.getProperty("cosmoport.export.timeout", Long.class, 0L);
+        this.executor = pool("db", env.getProperty("cosmoport.db.threads", Integer.class, 20), queueCapacity, registry);
+        this.streamingExecutor = pool("export", env.getProperty("cosmoport.export.threads", Integer.class, 2),
+                env.getProperty("cosmoport.export.queueSize", Integer.class, 0), registry);
+    }
+
+    private static ThreadPoolExecutor pool(String name, int threads, int queueCapacity, MeterRegistry registry) {
+        BlockingQueue<Runnable> queue = queueCapacity == 0 ? new SynchronousQueue<>()
+                : new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(pool, name, Tags.empty()).bindTo(registry);
+        return pool;
+    }
+
+    /**
+     * Ставит задачу обработчика в очередь пула
+     * @param endpoint название обработчика для счётчиков
+     * @throws RejectedExecutionException если очередь заполнена
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, Supplier<T> task) {
+        return submit(executor, timeout, endpoint, task);
+    }
+
+    /**
+     * Ставит в отдельный пул (cosmoport.export.threads) долгую задачу, которая пишет ответ потоком,
+     * например выгрузку всех кораблей: она не должна занимать потоки обычных обработчиков
+     * @param endpoint название обработчика для счётчиков
+     * @throws RejectedExecutionException если все потоки пула заняты и очередь заполнена
+     */
+    public <T> CompletableFuture<T> submitStreaming(String endpoint, Supplier<T> task) {
+        return submit(streamingExecutor, streamingTimeout, endpoint, task);
+    }
+
+    /**
+     * @param timeout время, после которого задача из очереди уже не выполняется, мс; 0 - без ограничения
+     */
+    private <T> CompletableFuture<T> submit(ThreadPoolExecutor executor, long timeout, String endpoint,
+                                            Supplier<T> task) {
+        EndpointCounters endpointCounters = counters.computeIfAbsent(endpoint, EndpointCounters::new);
+        long start = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        endpointCounters.submitted();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // SQL-запросы задачи учитываются в счётчике и трассировке HTTP-запроса, который её поставил
+        AtomicInteger statements = statementCounter.current();
+        Span parent = tracer.current();
+        try {
+            executor.execute(() -> {
+                // Future, завершённый снаружи (например, отменённый), тоже означает, что результат не нужен
+                if (future.isDone() || timeout > 0 && System.nanoTime() - start > timeoutNanos) {
+                    endpointCounters.expired();
+                    future.completeExceptionally(new TimeoutException("Task for " + endpoint + " expired in the queue"));
+                    return;
+                }
+                AtomicInteger previous = statementCounter.attach(statements);
+                Span previousSpan = tracer.attach(parent);
+                try {
+                    T result;
+                    try (Span span = tracer.start("db.task", endpoint)) {
+                        result = task.get();
+                    }
+                    endpointCounters.finished(System.nanoTime() - start, true);
+                    future.complete(result);
+                } catch (Throwable e) {
+                    endpointCounters.finished(System.nanoTime() - start, false);
+                    future.completeExceptionally(e);
+                } finally {
+                    tracer.restore(previousSpan);
+                    statementCounter.restore(previous);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            endpointCounters.rejected();
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * Возвращает состояние пула и счётчики обработчиков
+     */
+    public ExecutorStats getStats() {
+        List<EndpointStats> endpoints = new ArrayList<>();
+        counters.values().forEach(endpointCounters -> endpoints.add(endpointCounters.stats()));
+        endpoints.sort((a, b) -> a.getEndpoint().compareTo(b.getEndpoint()));
+        return new ExecutorStats(executor.getMaximumPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+                queueCapacity, endpoints);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        streamingExecutor.shutdownNow();
+    }
+}
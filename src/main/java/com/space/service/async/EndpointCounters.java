@@ -0,0 +1,53 @@
+package com.space.service.async;
+
+import com.space.model.EndpointStats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики одного обработчика; обновляются потоками контейнера и пула без блокировок
+ */
+class EndpointCounters {
+    private final String endpoint;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    EndpointCounters(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void submitted() {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+    }
+
+    void rejected() {
+        inFlight.decrementAndGet();
+        rejected.increment();
+    }
+
+    void expired() {
+        inFlight.decrementAndGet();
+        expired.increment();
+    }
+
+    void finished(long nanos, boolean success) {
+        inFlight.decrementAndGet();
+        totalNanos.add(nanos);
+        if (success) completed.increment();
+        else failed.increment();
+    }
+
+    EndpointStats stats() {
+        long finished = completed.sum() + failed.sum();
+        double avgMillis = finished == 0 ? 0 : totalNanos.sum() / 1e6 / finished;
+        return new EndpointStats(endpoint, inFlight.get(), maxInFlight.get(), completed.sum(), failed.sum(),
+                rejected.sum(), expired.sum(), avgMillis);
+    }
+}
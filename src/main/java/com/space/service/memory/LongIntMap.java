@@ -0,0 +1,99 @@
+package com.space.service.memory;
+
+import java.util.Arrays;
+
+/**
+ * Отображение long -> int без упаковки ключей и значений: открытая адресация с линейным пробированием.
+ * Значения неотрицательные, отсутствие ключа обозначается -1.
+ * Не потокобезопасно
+ */
+class LongIntMap {
+    static final int MISSING = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); values[i] != MISSING; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return MISSING;
+    }
+
+    void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length) rehash(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (values[i] != MISSING) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Удаляет ключ и возвращает его значение или MISSING.
+     * Следующие за ним элементы цепочки сдвигаются назад, поэтому поиск не требует пометок удаления
+     */
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (values[i] != MISSING && keys[i] != key) i = (i + 1) & mask;
+        int removed = values[i];
+        if (removed == MISSING) return MISSING;
+
+        int gap = i;
+        for (int j = (gap + 1) & mask; values[j] != MISSING; j = (j + 1) & mask) {
+            int home = index(keys[j], mask);
+            // Элемент можно перенести в пропуск, если его место не лежит между пропуском и ним самим
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = MISSING;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(values, MISSING);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        size = 0;
+    }
+
+    // Перемешивание битов, чтобы последовательные id не занимали соседние ячейки целыми цепочками
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
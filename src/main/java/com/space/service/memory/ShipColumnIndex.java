@@ -0,0 +1,399 @@
+package com.space.service.memory;
+
+import com.space.controller.ShipCursor;
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipPage;
+import com.space.model.ShipView;
+import com.space.model.ShipType;
+import com.space.repository.CosmoportRepository;
+import com.space.service.ShipFilter;
+import com.space.service.ShipIndex;
+import com.space.service.search.ShipTextIndex;
+import com.space.service.search.TrigramIndex;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Колоночное хранилище кораблей в памяти для режима memory index.
+ * Каждое поле хранится в отдельном массиве примитивов, позиция в массивах (слот) соответствует кораблю.
+ * Фильтры вычисляются как пересечение битовых множеств слотов: равенства - по заранее построенным множествам,
+ * диапазоны - бинарным поиском по отсортированным индексам колонок или сканированием массива.
+ * Отсортированные индексы перестраиваются лениво после изменений; пока они устарели, используется сканирование.
+ * Слоты удалённых кораблей занимаются новыми кораблями, поэтому массивы не растут при постоянной замене флота.
+ * Включается свойством cosmoport.memoryIndex.enabled
+ */
+@Component
+public class ShipColumnIndex implements ShipIndex, InitializingBean {
+    private static final ShipType[] TYPES = ShipType.values();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final CosmoportRepository cosmoportRepository;
+    private final ShipTextIndex textIndex;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Колонки; size - количество использованных слотов, включая свободные слоты удалённых кораблей
+    private int size;
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private long[] ids;
+    private String[] names;
+    private String[] planets;
+    private byte[] shipTypes;
+    private long[] prodDates;
+    private double[] speeds;
+    private int[] crewSizes;
+    private double[] ratings;
+    private final BitSet used = new BitSet();
+    private final BitSet live = new BitSet();
+    private final BitSet[] byType = new BitSet[TYPES.length];
+    private final LongIntMap slotById = new LongIntMap();
+
+    // Живые слоты, упорядоченные по значению колонки, затем по id
+    private int[] sortedById;
+    private int[] sortedByProdDate;
+    private int[] sortedBySpeed;
+    private int[] sortedByCrewSize;
+    private int[] sortedByRating;
+    private volatile boolean sortedValid;
+
+    private final IntToDoubleFunction idKey = slot -> ids[slot];
+    private final IntToDoubleFunction prodDateKey = slot -> prodDates[slot];
+    private final IntToDoubleFunction speedKey = slot -> speeds[slot];
+    private final IntToDoubleFunction crewSizeKey = slot -> crewSizes[slot];
+    private final IntToDoubleFunction ratingKey = slot -> ratings[slot];
+
+    @Autowired
+    public ShipColumnIndex(CosmoportRepository cosmoportRepository, ShipTextIndex textIndex, Environment env) {
+        this.cosmoportRepository = cosmoportRepository;
+        this.textIndex = textIndex;
+        this.enabled = env.getProperty("cosmoport.memoryIndex.enabled", Boolean.class, false);
+        for (int i = 0; i < TYPES.length; i++) byType[i] = new BitSet();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        if (!enabled) return;
+        List<Ship> ships = cosmoportRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            freeCount = 0;
+            used.clear();
+            live.clear();
+            for (BitSet type : byType) type.clear();
+            slotById.clear();
+            allocate(Math.max(INITIAL_CAPACITY, ships.size()));
+            for (Ship ship : ships) putUnlocked(ship);
+            rebuildSorted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Ship ship) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            putUnlocked(ship);
+            sortedValid = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Удалённый слот исключается через live, поэтому отсортированные индексы остаются корректными;
+    // когда слот займёт новый корабль, put пометит их устаревшими
+    @Override
+    public void remove(long id) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.remove(id);
+            if (slot == LongIntMap.MISSING) return;
+            live.clear(slot);
+            byType[shipTypes[slot]].clear(slot);
+            used.clear(slot);
+            names[slot] = null;
+            planets[slot] = null;
+            if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            freeSlots[freeCount++] = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество кораблей, подходящих под фильтр
+     */
+    public int count(ShipFilter filter) {
+        ensureSorted();
+        lock.readLock().lock();
+        try {
+            return match(filter).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает страницу кораблей, подходящих под фильтр, и их общее количество
+     * @param cursor курсор keyset-пагинации; если указан, страница начинается сразу после него
+     */
+    public ShipPage find(ShipFilter filter, ShipOrder order, int offset, int limit, ShipCursor cursor) {
+        ensureSorted();
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(filter);
+            IntToDoubleFunction key = key(order);
+            int[] ordered = sortedValid ? sorted(order) : sort(matches, key);
+            int from = cursor == null ? 0 : seek(ordered, key, cursor.getKey().doubleValue(), cursor.getId());
+
+            List<ShipView> ships = new ArrayList<>(Math.min(limit, 64));
+            int skipped = 0;
+            for (int i = from; i < ordered.length && ships.size() < limit; i++) {
+                int slot = ordered[i];
+                if (!matches.get(slot)) continue;
+                if (skipped++ < offset) continue;
+                ships.add(toView(slot));
+            }
+            return new ShipPage(ships, matches.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вычисляет множество слотов, подходящих под фильтр
+     */
+    private BitSet match(ShipFilter filter) {
+        BitSet result = (BitSet) live.clone();
+        if (filter.getShipType() != null) result.and(byType[filter.getShipType().ordinal()]);
+        if (filter.getUsed() != null) {
+            if (filter.getUsed()) result.and(used);
+            else result.andNot(used);
+        }
+        range(result, sortedByProdDate, prodDateKey, filter.getAfter(), filter.getBefore());
+        range(result, sortedBySpeed, speedKey, filter.getMinSpeed(), filter.getMaxSpeed());
+        range(result, sortedByCrewSize, crewSizeKey, filter.getMinCrewSize(), filter.getMaxCrewSize());
+        range(result, sortedByRating, ratingKey, filter.getMinRating(), filter.getMaxRating());
+        contains(result, names, filter.getName(), textIndex.findByName(filter.getName()));
+        contains(result, planets, filter.getPlanet(), textIndex.findByPlanet(filter.getPlanet()));
+        return result;
+    }
+
+    /**
+     * Оставляет в result только слоты со значением колонки в диапазоне [min, max]
+     */
+    private void range(BitSet result, int[] sorted, IntToDoubleFunction key, Number min, Number max) {
+        if (min == null && max == null) return;
+        double lo = min == null ? Double.NEGATIVE_INFINITY : min.doubleValue();
+        double hi = max == null ? Double.POSITIVE_INFINITY : max.doubleValue();
+        if (sortedValid) {
+            BitSet inRange = new BitSet(size);
+            int end = upperBound(sorted, key, hi);
+            for (int i = lowerBound(sorted, key, lo); i < end; i++) inRange.set(sorted[i]);
+            result.and(inRange);
+            return;
+        }
+        for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+            double value = key.applyAsDouble(slot);
+            if (value < lo || value > hi) result.clear(slot);
+        }
+    }
+
+    /**
+     * Оставляет в result только слоты, строка которых содержит подстроку (без учёта регистра, как LIKE).
+     * Если триграммный индекс смог ответить на запрос, используются найденные им id
+     */
+    private void contains(BitSet result, String[] column, String query, Set<Long> indexed) {
+        if (query == null) return;
+        if (indexed != null) {
+            BitSet found = new BitSet(size);
+            for (Long id : indexed) {
+                int slot = slotById.get(id);
+                if (slot != LongIntMap.MISSING) found.set(slot);
+            }
+            result.and(found);
+            return;
+        }
+        for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+            if (!TrigramIndex.containsIgnoreCase(column[slot], query)) result.clear(slot);
+        }
+    }
+
+    // Первая позиция, значение в которой не меньше value
+    private int lowerBound(int[] sorted, IntToDoubleFunction key, double value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.applyAsDouble(sorted[mid]) < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Первая позиция, значение в которой больше value
+    private int upperBound(int[] sorted, IntToDoubleFunction key, double value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.applyAsDouble(sorted[mid]) <= value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Первая позиция, пара (значение, id) в которой больше (value, id)
+    private int seek(int[] ordered, IntToDoubleFunction key, double value, long id) {
+        int lo = 0, hi = ordered.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double midValue = key.applyAsDouble(ordered[mid]);
+            if (midValue < value || midValue == value && ids[ordered[mid]] <= id) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void ensureSorted() {
+        if (!enabled || sortedValid) return;
+        lock.writeLock().lock();
+        try {
+            if (!sortedValid) rebuildSorted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuildSorted() {
+        sortedById = sort(live, idKey);
+        sortedByProdDate = sort(live, prodDateKey);
+        sortedBySpeed = sort(live, speedKey);
+        sortedByCrewSize = sort(live, crewSizeKey);
+        sortedByRating = sort(live, ratingKey);
+        sortedValid = true;
+    }
+
+    /**
+     * Упорядочивает слоты по значению колонки, затем по id, сортировкой слиянием по массиву int без упаковки
+     */
+    private int[] sort(BitSet slots, IntToDoubleFunction key) {
+        int[] sorted = slots.stream().toArray();
+        int[] buffer = new int[sorted.length];
+        for (int width = 1; width < sorted.length; width *= 2) {
+            for (int from = 0; from < sorted.length; from += 2 * width) {
+                int middle = Math.min(from + width, sorted.length);
+                int to = Math.min(from + 2 * width, sorted.length);
+                int i = from, j = middle, k = from;
+                while (i < middle && j < to) buffer[k++] = less(sorted[j], sorted[i], key) ? sorted[j++] : sorted[i++];
+                while (i < middle) buffer[k++] = sorted[i++];
+                while (j < to) buffer[k++] = sorted[j++];
+            }
+            int[] swap = sorted;
+            sorted = buffer;
+            buffer = swap;
+        }
+        return sorted;
+    }
+
+    private boolean less(int a, int b, IntToDoubleFunction key) {
+        int result = Double.compare(key.applyAsDouble(a), key.applyAsDouble(b));
+        return result != 0 ? result < 0 : ids[a] < ids[b];
+    }
+
+    private int[] sorted(ShipOrder order) {
+        switch (order) {
+            case SPEED: return sortedBySpeed;
+            case DATE: return sortedByProdDate;
+            case RATING: return sortedByRating;
+        }
+        return sortedById;
+    }
+
+    private IntToDoubleFunction key(ShipOrder order) {
+        switch (order) {
+            case SPEED: return speedKey;
+            case DATE: return prodDateKey;
+            case RATING: return ratingKey;
+        }
+        return idKey;
+    }
+
+    private void putUnlocked(Ship ship) {
+        int slot = slotById.get(ship.getId());
+        if (slot != LongIntMap.MISSING) {
+            byType[shipTypes[slot]].clear(slot);
+        } else {
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                if (size == ids.length) grow();
+                slot = size++;
+            }
+            slotById.put(ship.getId(), slot);
+        }
+        ids[slot] = ship.getId();
+        names[slot] = ship.getName();
+        planets[slot] = ship.getPlanet();
+        shipTypes[slot] = (byte) ship.getShipType().ordinal();
+        prodDates[slot] = ship.getProdDate().getTime();
+        speeds[slot] = ship.getSpeed();
+        crewSizes[slot] = ship.getCrewSize();
+        ratings[slot] = ship.getRating();
+        used.set(slot, ship.getUsed());
+        byType[shipTypes[slot]].set(slot);
+        live.set(slot);
+    }
+
+    private ShipView toView(int slot) {
+        return new ShipView(ids[slot], names[slot], planets[slot], TYPES[shipTypes[slot]], prodDates[slot],
+                used.get(slot), speeds[slot], crewSizes[slot], ratings[slot]);
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        names = new String[capacity];
+        planets = new String[capacity];
+        shipTypes = new byte[capacity];
+        prodDates = new long[capacity];
+        speeds = new double[capacity];
+        crewSizes = new int[capacity];
+        ratings = new double[capacity];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        planets = Arrays.copyOf(planets, capacity);
+        shipTypes = Arrays.copyOf(shipTypes, capacity);
+        prodDates = Arrays.copyOf(prodDates, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        crewSizes = Arrays.copyOf(crewSizes, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+    }
+}
@@ -0,0 +1,64 @@
+package com.space.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * JpaTransactionManager, измеряющий длительность транзакций от получения соединения до фиксации или отката.
+ * Таймер cosmoport.transactions разделяется по признаку readOnly и исходу (committed, rolled_back, unknown)
+ */
+public class MeteredTransactionManager extends JpaTransactionManager {
+    private final transient MeterRegistry registry;
+    // Начало транзакции между doBegin и prepareSynchronization, которые вызываются подряд в одном потоке
+    private final transient ThreadLocal<Timer.Sample> beginning = new ThreadLocal<>();
+
+    public MeteredTransactionManager(EntityManagerFactory emf, MeterRegistry registry) {
+        super(emf);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        beginning.set(Timer.start(registry));
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected void prepareSynchronization(DefaultTransactionStatus status, TransactionDefinition definition) {
+        super.prepareSynchronization(status, definition);
+        Timer.Sample sample = beginning.get();
+        beginning.remove();
+        if (sample != null && status.isNewTransaction() && status.isNewSynchronization()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TimingSynchronization(sample, definition.isReadOnly()));
+        }
+    }
+
+    private class TimingSynchronization extends TransactionSynchronizationAdapter {
+        private final Timer.Sample sample;
+        private final boolean readOnly;
+
+        TimingSynchronization(Timer.Sample sample, boolean readOnly) {
+            this.sample = sample;
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            String outcome = status == STATUS_COMMITTED ? "committed"
+                    : status == STATUS_ROLLED_BACK ? "rolled_back" : "unknown";
+            sample.stop(Timer.builder("cosmoport.transactions")
+                    .description("Transaction duration")
+                    .tag("readOnly", String.valueOf(readOnly))
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+}
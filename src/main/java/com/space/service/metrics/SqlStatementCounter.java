@@ -0,0 +1,75 @@
+package com.space.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Считает SQL-запросы, которые готовит Hibernate: общим счётчиком cosmoport.sql.statements по виду запроса
+ * и счётчиком текущего HTTP-запроса, если он привязан к потоку (см. MetricsFilter и DbExecutor).
+ * Запросы, выполняемые напрямую через JDBC (пакетная вставка, пересчёт рейтинга), не учитываются
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private final ThreadLocal<AtomicInteger> current = new ThreadLocal<>();
+    private final Counter selects;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter others;
+
+    public SqlStatementCounter(MeterRegistry registry) {
+        this.selects = counter(registry, "select");
+        this.inserts = counter(registry, "insert");
+        this.updates = counter(registry, "update");
+        this.deletes = counter(registry, "delete");
+        this.others = counter(registry, "other");
+    }
+
+    private static Counter counter(MeterRegistry registry, String type) {
+        return Counter.builder("cosmoport.sql.statements")
+                .description("SQL statements prepared by Hibernate")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        type(sql).increment();
+        AtomicInteger counter = current.get();
+        if (counter != null) counter.incrementAndGet();
+        return sql;
+    }
+
+    private Counter type(String sql) {
+        String start = sql.trim();
+        if (start.regionMatches(true, 0, "select", 0, 6)) return selects;
+        if (start.regionMatches(true, 0, "insert", 0, 6)) return inserts;
+        if (start.regionMatches(true, 0, "update", 0, 6)) return updates;
+        if (start.regionMatches(true, 0, "delete", 0, 6)) return deletes;
+        return others;
+    }
+
+    /**
+     * Возвращает счётчик, привязанный к текущему потоку, или null
+     */
+    public AtomicInteger current() {
+        return current.get();
+    }
+
+    /**
+     * Привязывает счётчик запроса к текущему потоку
+     * @return прежний счётчик потока, который нужно вернуть через restore
+     */
+    public AtomicInteger attach(AtomicInteger counter) {
+        AtomicInteger previous = current.get();
+        current.set(counter);
+        return previous;
+    }
+
+    public void restore(AtomicInteger previous) {
+        if (previous == null) current.remove();
+        else current.set(previous);
+    }
+}
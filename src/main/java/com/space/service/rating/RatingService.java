@@ -0,0 +1,134 @@
+package com.space.service.rating;
+
+import com.space.model.RatingEngine;
+import com.space.model.RerateProgress;
+import com.space.model.ShipRating;
+import com.space.repository.CosmoportRepository;
+import com.space.service.FleetVersion;
+import com.space.service.ShipIndex;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Хранит текущее правило расчёта рейтинга и пересчитывает рейтинг всех кораблей при смене текущего года.
+ * Пересчёт идёт в фоне: корабли делятся на порции по диапазонам id, каждая порция обрабатывается
+ * отдельной транзакцией в пуле из cosmoport.rating.threads потоков.
+ * Начальный текущий год задаётся свойством cosmoport.rating.actualYear.
+ * Индексы в памяти (режим memory index) получают новые рейтинги только по окончании всего пересчёта
+ */
+@Service
+public class RatingService implements DisposableBean {
+    private final CosmoportRepository cosmoportRepository;
+    private final List<ShipIndex> indexes;
+    private final FleetVersion fleetVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    private volatile RatingEngine ratingEngine;
+    private volatile RerateJob job;
+
+    @Autowired
+    public RatingService(CosmoportRepository cosmoportRepository, List<ShipIndex> indexes, FleetVersion fleetVersion,
+                         PlatformTransactionManager transactionManager, Environment env) {
+        this.cosmoportRepository = cosmoportRepository;
+        this.indexes = indexes;
+        this.fleetVersion = fleetVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = env.getProperty("cosmoport.rating.chunkSize", Integer.class, 5000);
+        this.ratingEngine = new ShipRating(env.getProperty("cosmoport.rating.actualYear", Integer.class,
+                ShipRating.ACTUAL_YEAR));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(env.getProperty("cosmoport.rating.threads", Integer.class, 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rerate-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Возвращает текущее правило расчёта рейтинга
+     */
+    public RatingEngine getRatingEngine() {
+        return ratingEngine;
+    }
+
+    /**
+     * Меняет текущий год и запускает фоновый пересчёт рейтинга всех кораблей.
+     * Корабли, создаваемые и изменяемые во время пересчёта, сразу получают рейтинг по новому году
+     * @param actualYear новый текущий год, не раньше ShipRating.ACTUAL_YEAR
+     * @return состояние запущенного пересчёта; null, если предыдущий пересчёт ещё не закончен
+     */
+    public synchronized RerateProgress rerate(int actualYear) {
+        if (job != null && job.isRunning()) return null;
+        RatingEngine engine = new ShipRating(actualYear);
+        Long minId = cosmoportRepository.findMinId();
+        Long maxId = cosmoportRepository.findMaxId();
+        RerateJob newJob = new RerateJob(actualYear, cosmoportRepository.count());
+        ratingEngine = engine;
+        job = newJob;
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        if (minId != null) {
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long fromId = from;
+                long toId = Math.min(from + chunkSize - 1, maxId);
+                chunks.add(CompletableFuture.runAsync(() -> rerateChunk(newJob, engine, fromId, toId), executor));
+            }
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .whenComplete((result, error) -> finish(newJob, error != null));
+        return newJob.progress();
+    }
+
+    /**
+     * Возвращает состояние текущего или последнего пересчёта рейтинга
+     */
+    public RerateProgress getProgress() {
+        RerateJob current = job;
+        if (current == null) {
+            return new RerateProgress(RerateProgress.Status.IDLE, ratingEngine.getActualYear(), 0, 0,
+                    null, null, 0);
+        }
+        return current.progress();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void rerateChunk(RerateJob job, RatingEngine engine, long fromId, long toId) {
+        Integer ships = transactionTemplate.execute(status -> cosmoportRepository.rerate(fromId, toId, engine));
+        cosmoportRepository.evictCaches();
+        fleetVersion.changed();
+        job.processed(ships);
+    }
+
+    /*
+     * Индексы в памяти хранят рейтинг, поэтому перестраиваются после пересчёта. До этого фильтры и сортировка
+     * по рейтингу в режиме memory index видят рейтинги по прежнему году,
+     * а запросы к базе - уже пересчитанные порции
+     */
+    private void finish(RerateJob job, boolean failed) {
+        try {
+            cosmoportRepository.evictCaches();
+            indexes.forEach(ShipIndex::reload);
+        } finally {
+            job.finish(failed);
+        }
+    }
+}
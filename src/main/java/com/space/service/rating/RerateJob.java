@@ -0,0 +1,44 @@
+package com.space.service.rating;
+
+import com.space.model.RerateProgress;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчики одного запуска пересчёта рейтинга; обновляются потоками, обрабатывающими порции кораблей
+ */
+class RerateJob {
+    private final int actualYear;
+    private final long total;
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong processed = new AtomicLong();
+    private volatile RerateProgress.Status status = RerateProgress.Status.RUNNING;
+    private volatile long finishedAt;
+
+    RerateJob(int actualYear, long total) {
+        this.actualYear = actualYear;
+        this.total = total;
+    }
+
+    void processed(int ships) {
+        processed.addAndGet(ships);
+    }
+
+    void finish(boolean failed) {
+        finishedAt = System.currentTimeMillis();
+        status = failed ? RerateProgress.Status.FAILED : RerateProgress.Status.DONE;
+    }
+
+    boolean isRunning() {
+        return status == RerateProgress.Status.RUNNING;
+    }
+
+    RerateProgress progress() {
+        RerateProgress.Status status = this.status;
+        long end = status == RerateProgress.Status.RUNNING ? System.currentTimeMillis() : finishedAt;
+        long done = processed.get();
+        double shipsPerSecond = done * 1000.0 / Math.max(1, end - startedAt);
+        return new RerateProgress(status, actualYear, total, done, startedAt,
+                status == RerateProgress.Status.RUNNING ? null : finishedAt, shipsPerSecond);
+    }
+}
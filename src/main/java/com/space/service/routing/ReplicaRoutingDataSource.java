@@ -0,0 +1,235 @@
+package com.space.service.routing;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений с разделением чтения и записи.
+ * Соединения транзакций только для чтения (@Transactional(readOnly = true)) берутся из наименее загруженной
+ * исправной реплики, при равной загрузке - по кругу; все остальные соединения берутся из основной базы.
+ * Решение принимается при получении соединения, поэтому Hibernate должен получать соединения
+ * через LazyConnectionDataSourceProxy: к первому SQL-запросу признак readOnly транзакции уже известен.
+ * Реплики периодически проверяются запросом отставания (число секунд); реплика, которая отстаёт больше
+ * maxLag секунд или недоступна, исключается до следующей успешной проверки.
+ * Если исправных реплик нет, чтение идёт в основную базу.
+ * После каждой записи в основную базу (фиксации транзакции не только для чтения) всё чтение в течение primaryWindow мс
+ * тоже идёт в основную базу: реплика ещё может не содержать изменений, и прочитанные с неё данные попали бы
+ * в кэши Hibernate (второго уровня и запросов) уже после их сброса, а ответ - под новым ETag версии флота
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final long maxLag;
+    private final long checkInterval;
+    private final long primaryWindow;
+    // Момент (System.nanoTime), до которого чтение идёт в основную базу
+    private volatile long primaryUntil = System.nanoTime();
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService checker;
+
+    /**
+     * @param lagQuery запрос, возвращающий отставание реплики в секундах; если не задан, проверяется только доступность
+     * @param maxLag допустимое отставание реплики, с
+     * @param checkInterval период проверки реплик, мс
+     * @param primaryWindow время после записи, в течение которого чтение идёт в основную базу, мс
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery,
+                                    long maxLag, long checkInterval, long primaryWindow) {
+        this.primary = primary;
+        this.lagQuery = lagQuery == null || lagQuery.trim().isEmpty() ? null : lagQuery;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.primaryWindow = primaryWindow;
+
+        List<Replica> list = new ArrayList<>(replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            list.add(replica);
+            targets.put(name, replica);
+        });
+        this.replicas = Collections.unmodifiableList(list);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+        if (System.nanoTime() - primaryUntil < 0) return PRIMARY;
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        Replica best = null;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy && (best == null || replica.active.get() < best.active.get())) best = replica;
+        }
+        return best == null ? PRIMARY : best.name;
+    }
+
+    // Окно чтения из основной базы отсчитывается от фиксации транзакции, а соединение без транзакции
+    // (например, JdbcTemplate в автофиксации) считается записью сразу при выдаче
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pinPrimary();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                pinPrimary();
+            }
+        });
+    }
+
+    private void pinPrimary() {
+        primaryUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(primaryWindow);
+    }
+
+    /**
+     * Первая проверка реплик выполняется сразу, следующие - в отдельном потоке каждые checkInterval мс
+     */
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (replicas.isEmpty()) return;
+        checkReplicas();
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkReplicas, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Обновляет отставание и исправность всех реплик
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            long lag = lag(replica.target);
+            replica.lag = lag;
+            replica.healthy = lag >= 0 && lag <= maxLag;
+        }
+    }
+
+    // Отставание реплики в секундах или -1, если реплика недоступна или отставание неизвестно
+    private long lag(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (lagQuery == null) return connection.isValid(5) ? 0 : -1;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (!resultSet.next()) return -1;
+                long lag = resultSet.getLong(1);
+                return resultSet.wasNull() ? -1 : lag;
+            }
+        }
+        catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (checker != null) checker.shutdownNow();
+        for (Replica replica : replicas) close(replica.target);
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable) ((AutoCloseable) dataSource).close();
+        else if (dataSource instanceof EmbeddedDatabase) ((EmbeddedDatabase) dataSource).shutdown();
+    }
+
+    /**
+     * Реплика со счётчиком выданных и ещё не закрытых соединений (загрузка) и результатом последней проверки
+     */
+    public static class Replica extends DelegatingDataSource {
+        private final String name;
+        private final DataSource target;
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile long lag;
+
+        Replica(String name, DataSource target) {
+            super(target);
+            this.name = name;
+            this.target = target;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getLag() {
+            return lag;
+        }
+
+        public int getActive() {
+            return active.get();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counted(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counted(super.getConnection(username, password));
+        }
+
+        private Connection counted(Connection connection) {
+            active.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Replica.class.getClassLoader(), new Class[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            active.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.space.service.search;
+
+import com.space.model.Ship;
+import com.space.repository.CosmoportRepository;
+import com.space.service.ShipIndex;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Триграммные индексы по названию и планете кораблей.
+ * Загружается из базы при старте и поддерживается сервисом при создании, обновлении и удалении кораблей
+ */
+@Component
+public class ShipTextIndex implements ShipIndex, InitializingBean {
+    // Больше совпадений индекс не возвращает: такой фильтр дешевле выполнить через LIKE, чем через IN (...)
+    private static final int MAX_RESULTS = 1000;
+
+    private final CosmoportRepository cosmoportRepository;
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex planets = new TrigramIndex();
+
+    @Autowired
+    public ShipTextIndex(CosmoportRepository cosmoportRepository) {
+        this.cosmoportRepository = cosmoportRepository;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        names.clear();
+        planets.clear();
+        for (Object[] row : cosmoportRepository.findSearchFields()) {
+            long id = (Long) row[0];
+            names.put(id, (String) row[1]);
+            planets.put(id, (String) row[2]);
+        }
+    }
+
+    @Override
+    public void put(Ship ship) {
+        names.put(ship.getId(), ship.getName());
+        planets.put(ship.getId(), ship.getPlanet());
+    }
+
+    @Override
+    public void remove(long id) {
+        names.remove(id);
+        planets.remove(id);
+    }
+
+    /**
+     * Возвращает id кораблей, название которых содержит подстроку, или null, если индекс не может ответить
+     */
+    public Set<Long> findByName(String name) {
+        return name == null ? null : names.search(name, MAX_RESULTS);
+    }
+
+    /**
+     * Возвращает id кораблей, планета которых содержит подстроку, или null, если индекс не может ответить
+     */
+    public Set<Long> findByPlanet(String planet) {
+        return planet == null ? null : planets.search(planet, MAX_RESULTS);
+    }
+}
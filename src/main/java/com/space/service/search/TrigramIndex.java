@@ -0,0 +1,139 @@
+package com.space.service.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по триграммам строк для поиска подстроки.
+ * Для каждой триграммы хранится множество id строк, в которых она встречается;
+ * кандидаты, полученные пересечением множеств, проверяются на вхождение подстроки.
+ * Регистр не учитывается: символы посимвольно приводятся к нижнему регистру (Character.toLowerCase),
+ * как и в условии lower(field) LIKE из ShipSpecifications. Потокобезопасен
+ */
+public class TrigramIndex {
+    private static final int GRAM = 3;
+
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, String> texts = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавляет или заменяет строку с указанным id
+     */
+    public void put(long id, String text) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            if (text == null) return;
+            texts.put(id, text);
+            for (long gram : grams(text)) postings.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет строку с указанным id
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            texts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет строки, содержащие подстроку
+     * Возвращает null, если индекс не может ответить на запрос: подстрока короче триграммы
+     * или совпадений больше, чем maxResults
+     * @param query искомая подстрока
+     * @param maxResults максимальное количество возвращаемых id
+     * @return id строк, содержащих подстроку
+     */
+    public Set<Long> search(String query, int maxResults) {
+        if (query.length() < GRAM) return null;
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (long gram : grams(query)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) return Collections.emptySet();
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>();
+            for (Long id : lists.get(0)) {
+                if (!containsAll(lists, id) || !containsIgnoreCase(texts.get(id), query)) continue;
+                if (result.size() == maxResults) return null;
+                result.add(id);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean containsAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) return false;
+        }
+        return true;
+    }
+
+    private void removeUnlocked(long id) {
+        String old = texts.remove(id);
+        if (old == null) return;
+        for (long gram : grams(old)) {
+            Set<Long> ids = postings.get(gram);
+            ids.remove(id);
+            if (ids.isEmpty()) postings.remove(gram);
+        }
+    }
+
+    /**
+     * Содержит ли строка подстроку, если сравнивать символы, приведённые к нижнему регистру
+     */
+    public static boolean containsIgnoreCase(String text, String query) {
+        for (int i = 0; i + query.length() <= text.length(); i++) {
+            int j = 0;
+            while (j < query.length() && fold(text.charAt(i + j)) == fold(query.charAt(j))) j++;
+            if (j == query.length()) return true;
+        }
+        return false;
+    }
+
+    // Триграмма упаковывается в long по 16 бит на символ, приведённый к одному регистру
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) fold(text.charAt(i)) << 32) | ((long) fold(text.charAt(i + 1)) << 16)
+                    | fold(text.charAt(i + 2)));
+        }
+        return grams;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+}
@@ -0,0 +1,57 @@
+package com.space.service.trace;
+
+import com.space.model.RequestTrace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранит в памяти cosmoport.trace.slowest самых долгих трассировок запросов.
+ * Трассировки лежат в куче по возрастанию длительности: новая трассировка вытесняет самую быструю из сохранённых
+ */
+@Component
+public class SlowTraces {
+    private static final Comparator<RequestTrace> BY_DURATION = Comparator.comparingDouble(RequestTrace::getDurationMillis);
+
+    private final int capacity;
+    private final PriorityQueue<RequestTrace> traces;
+    private final AtomicLong ids = new AtomicLong();
+
+    @Autowired
+    public SlowTraces(Environment env) {
+        this.capacity = env.getProperty("cosmoport.trace.slowest", Integer.class, 20);
+        this.traces = new PriorityQueue<>(Math.max(capacity, 1), BY_DURATION);
+    }
+
+    public long nextId() {
+        return ids.incrementAndGet();
+    }
+
+    public synchronized void offer(RequestTrace trace) {
+        if (traces.size() < capacity) {
+            traces.add(trace);
+        } else if (capacity > 0 && BY_DURATION.compare(trace, traces.peek()) > 0) {
+            traces.poll();
+            traces.add(trace);
+        }
+    }
+
+    /**
+     * Возвращает сохранённые трассировки, начиная с самой долгой
+     */
+    public synchronized List<RequestTrace> getTraces() {
+        List<RequestTrace> result = new ArrayList<>(traces);
+        result.sort(BY_DURATION.reversed());
+        return result;
+    }
+
+    public synchronized void clear() {
+        traces.clear();
+    }
+}
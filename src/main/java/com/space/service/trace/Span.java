@@ -0,0 +1,79 @@
+package com.space.service.trace;
+
+import com.space.model.TraceSpan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Участок трассировки запроса: название, подробности (например, текст SQL), время и вложенные участки.
+ * Закрытие участка возвращает текущим участком потока тот, что был текущим при его открытии
+ */
+public class Span implements AutoCloseable {
+    private final Tracer tracer;
+    private final Span previous;
+    private final String name;
+    private final String detail;
+    private final long start = System.nanoTime();
+    private volatile long end;
+    private volatile long rows = -1;
+    // Вложенные участки могут добавляться из потоков DbExecutor
+    private final List<Span> children = Collections.synchronizedList(new ArrayList<>());
+
+    Span(Tracer tracer, Span previous, String name, String detail) {
+        this.tracer = tracer;
+        this.previous = previous;
+        this.name = name;
+        this.detail = detail;
+    }
+
+    void addChild(Span child) {
+        children.add(child);
+    }
+
+    /**
+     * Задаёт число строк, прочитанных или изменённых запросом
+     */
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    void addRow() {
+        rows = rows < 0 ? 1 : rows + 1;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getDurationNanos() {
+        return (end == 0 ? System.nanoTime() : end) - start;
+    }
+
+    /**
+     * Завершает участок, не меняя текущий участок потока
+     */
+    public void end() {
+        end = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        end();
+        tracer.restore(previous);
+    }
+
+    /**
+     * Возвращает неизменяемый снимок участка и вложенных участков
+     * @param origin начало трассировки, от которого отсчитывается время участков
+     */
+    public TraceSpan snapshot(long origin) {
+        List<TraceSpan> snapshots = new ArrayList<>();
+        synchronized (children) {
+            for (Span child : children) snapshots.add(child.snapshot(origin));
+        }
+        return new TraceSpan(name, detail, (start - origin) / 1e6, getDurationNanos() / 1e6,
+                rows < 0 ? null : rows, snapshots);
+    }
+}
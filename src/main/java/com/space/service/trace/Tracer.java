@@ -0,0 +1,58 @@
+package com.space.service.trace;
+
+/**
+ * Трассировка отдельных запросов. Пока поток обслуживает трассируемый запрос, к нему привязан текущий участок,
+ * и start открывает вложенный в него участок. В остальных потоках start возвращает null,
+ * поэтому участки открываются в try-with-resources без проверок и почти ничего не стоят без трассировки
+ */
+public class Tracer {
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    /**
+     * Открывает корневой участок трассировки запроса и делает его текущим
+     */
+    public Span startTrace(String name, String detail) {
+        Span root = new Span(this, current.get(), name, detail);
+        current.set(root);
+        return root;
+    }
+
+    /**
+     * Открывает участок внутри текущего
+     * @return новый участок или null, если поток не трассируется
+     */
+    public Span start(String name) {
+        return start(name, null);
+    }
+
+    public Span start(String name, String detail) {
+        Span parent = current.get();
+        if (parent == null) return null;
+        Span span = new Span(this, parent, name, detail);
+        parent.addChild(span);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Возвращает текущий участок потока или null
+     */
+    public Span current() {
+        return current.get();
+    }
+
+    /**
+     * Делает участок текущим для потока, выполняющего часть запроса
+     * @return прежний участок потока, который нужно вернуть через restore
+     */
+    public Span attach(Span span) {
+        Span previous = current.get();
+        current.set(span);
+        return previous;
+    }
+
+    public void restore(Span previous) {
+        if (previous == null) current.remove();
+        else current.set(previous);
+    }
+}
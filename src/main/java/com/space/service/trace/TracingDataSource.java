@@ -0,0 +1,103 @@
+package com.space.service.trace;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Источник соединений, записывающий каждый SQL-запрос трассируемого HTTP-запроса отдельным участком:
+ * текст запроса, время выполнения и число прочитанных или изменённых строк.
+ * Соединение оборачивается, только если при его получении поток трассируется; остальные запросы идут к пулу напрямую
+ */
+public class TracingDataSource extends DelegatingDataSource {
+    private final Tracer tracer;
+
+    public TracingDataSource(DataSource targetDataSource, Tracer tracer) {
+        super(targetDataSource);
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trace(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trace(super.getConnection(username, password));
+    }
+
+    private Connection trace(Connection connection) {
+        if (tracer.current() == null) return connection;
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement && !method.getName().equals("unwrap")) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                Class<? extends Statement> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return statement(type, (Statement) result, sql);
+            }
+            return result;
+        });
+    }
+
+    private Statement statement(Class<? extends Statement> type, Statement statement, String preparedSql) {
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                try (Span span = tracer.start("jdbc", sql)) {
+                    Object result = invoke(statement, method, args);
+                    if (span != null) {
+                        if (result instanceof Integer) span.setRows((Integer) result);
+                        else if (result instanceof Long) span.setRows((Long) result);
+                        else if (result instanceof int[]) span.setRows(sum((int[]) result));
+                        else if (result instanceof ResultSet) return resultSet((ResultSet) result, span);
+                    }
+                    return result;
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    // Число строк выборки известно только после чтения, поэтому оно считается вызовами next()
+    private ResultSet resultSet(ResultSet resultSet, Span span) {
+        span.setRows(0);
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) span.addRow();
+            return result;
+        });
+    }
+
+    private static long sum(int[] counts) {
+        long rows = 0;
+        for (int count : counts) rows += Math.max(count, 0);
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
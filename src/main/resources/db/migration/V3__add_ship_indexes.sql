@@ -0,0 +1,13 @@
+-- Индексы по полям сортировки ShipOrder. InnoDB добавляет первичный ключ в конец вторичного индекса,
+-- поэтому индекс по полю упорядочен так же, как ORDER BY поле, id при keyset-пагинации
+CREATE INDEX idx_ship_speed ON ship (speed);
+CREATE INDEX idx_ship_prodDate ON ship (prodDate);
+CREATE INDEX idx_ship_rating ON ship (rating);
+
+-- Диапазонный фильтр по размеру экипажа
+CREATE INDEX idx_ship_crewSize ON ship (crewSize);
+
+-- Частые сочетания фильтров: сначала поля с условием равенства, затем поле диапазона или сортировки.
+-- Для COUNT по этим фильтрам индексы покрывающие, обращения к строкам таблицы не нужны
+CREATE INDEX idx_ship_shipType_isUsed_rating ON ship (shipType, isUsed, rating);
+CREATE INDEX idx_ship_shipType_prodDate ON ship (shipType, prodDate);
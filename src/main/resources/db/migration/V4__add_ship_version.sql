@@ -0,0 +1,2 @@
+-- Версия корабля для оптимистической блокировки и ETag
+ALTER TABLE ship ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
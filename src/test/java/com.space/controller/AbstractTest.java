@@ -3,6 +3,10 @@ package com.space.controller;
 import com.space.config.AppConfig;
 import com.space.config.MyWebAppInit;
 import com.space.config.WebConfig;
+import com.space.controller.utils.AsyncMockMvc;
+import com.space.service.ShipIndex;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +16,11 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
-import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.persistence.EntityManagerFactory;
+
 @RunWith(SpringJUnit4ClassRunner.class)
 @ActiveProfiles("dev")
 @ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class})
@@ -24,7 +29,7 @@ import org.springframework.web.context.WebApplicationContext;
 public abstract class AbstractTest {
 
     WebApplicationContext context;
-    MockMvc mockMvc;
+    AsyncMockMvc mockMvc;
 
     @Autowired
     public void setContext(WebApplicationContext context) {
@@ -33,6 +38,10 @@ public abstract class AbstractTest {
 
     @Before
     public void setup() {
-        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        // База пересоздаётся скриптом test.sql в обход сервиса, поэтому кэши очищаются, а индексы строятся заново
+        Cache cache = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache();
+        cache.evictAllRegions();
+        context.getBeansOfType(ShipIndex.class).values().forEach(ShipIndex::reload);
+        mockMvc = new AsyncMockMvc(MockMvcBuilders.webAppContextSetup(context).build());
     }
 }
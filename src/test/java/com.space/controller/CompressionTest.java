@@ -0,0 +1,114 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.space.config.CompressionFilter;
+import com.space.controller.utils.AsyncMockMvc;
+import com.space.controller.utils.ShipInfoTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CompressionTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setupFilter() {
+        mockMvc = new AsyncMockMvc(MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(new CompressionFilter()).build());
+    }
+
+    //test1
+    @Test
+    public void getShipsGzipTest() throws Exception {
+        String expected = mockMvc.perform(get("/rest/ships?pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships?pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Ответ на запрос GET /rest/ships не сжимается при Accept-Encoding: gzip.",
+                "gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        byte[] body = StreamUtils.copyToByteArray(
+                new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+        assertEquals("Сжатый ответ на запрос GET /rest/ships отличается от несжатого.",
+                mapper.readValue(expected, typeReference), mapper.readValue(body, typeReference));
+    }
+
+    //test2
+    @Test
+    public void getCountNotCompressedTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/count")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Короткий ответ на запрос GET /rest/ships/count сжимается.",
+                null, response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships/count.",
+                "40", response.getContentAsString());
+    }
+
+    //test3
+    @Test
+    public void getShipsSmileTest() throws Exception {
+        String expected = mockMvc.perform(get("/rest/ships?pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships?pageSize=40")
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Возвращается не правильный тип содержимого при запросе GET /rest/ships в формате Smile.",
+                "x-jackson-smile", MediaType.parseMediaType(response.getContentType()).getSubtype());
+        List<ShipInfoTest> actual = new ObjectMapper(new SmileFactory())
+                .readValue(response.getContentAsByteArray(), typeReference);
+        assertEquals("Ответ в формате Smile на запрос GET /rest/ships отличается от JSON.",
+                mapper.readValue(expected, typeReference), actual);
+    }
+
+    //test4
+    @Test
+    public void compressedETagIsWeakTest() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/rest/ships?pageSize=40"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        MockHttpServletResponse compressed = mockMvc.perform(get("/rest/ships?pageSize=40")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("Несжатый ответ на запрос GET /rest/ships не содержит Vary: Accept-Encoding.",
+                HttpHeaders.ACCEPT_ENCODING, plain.getHeader(HttpHeaders.VARY));
+        assertEquals("Сжатый ответ на запрос GET /rest/ships не содержит Vary: Accept-Encoding.",
+                HttpHeaders.ACCEPT_ENCODING, compressed.getHeader(HttpHeaders.VARY));
+        assertEquals("ETag сжатого ответа на запрос GET /rest/ships не слабый.",
+                "W/" + plain.getHeader(HttpHeaders.ETAG), compressed.getHeader(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/rest/ships?pageSize=40")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, compressed.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,85 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CreateShipsBulkTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void createShipsBulkJsonArrayTest() throws Exception {
+        ResultActions resultActions = mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.NO_SPEED_JSON + "," + TestsHelper.NORMAL_JSON + "]"))
+                .andExpect(status().isOk());
+
+        JsonNode results = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+        assertEquals("Возвращается не правильное количество результатов при запросе POST /rest/ships/bulk.", 3, results.size());
+        assertEquals("Возвращается не правильный статус при запросе POST /rest/ships/bulk.", 200, results.get(0).get("status").asInt());
+        assertEquals("Возвращается не правильный id при запросе POST /rest/ships/bulk.", 41L, results.get(0).get("id").asLong());
+        assertEquals("Невалидный корабль не отклоняется при запросе POST /rest/ships/bulk.", 400, results.get(1).get("status").asInt());
+        assertEquals("Невалидный корабль получает id при запросе POST /rest/ships/bulk.", true, results.get(1).get("id").isNull());
+        assertEquals("Возвращается не правильный id при запросе POST /rest/ships/bulk.", 42L, results.get(2).get("id").asLong());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/42")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
+        assertEquals("Корабль, созданный запросом POST /rest/ships/bulk, сохраняется не правильно.", 0.8, actual.speed);
+
+        String count = mockMvc.perform(get("/rest/ships/count")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Возвращается не правильное количество кораблей после запроса POST /rest/ships/bulk.", "42", count);
+    }
+
+    //test2
+    @Test
+    public void createShipsBulkNdjsonTest() throws Exception {
+        String content = TestsHelper.NORMAL_JSON + "\n"
+                + "{not a ship\n"
+                + "\n"
+                + TestsHelper.EMPTY_NAME_JSON + "\n"
+                + TestsHelper.NORMAL_JSON + "\n";
+        ResultActions resultActions = mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(CosmoportController.NDJSON_VALUE)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(content))
+                .andExpect(status().isOk());
+
+        JsonNode results = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+        assertEquals("Возвращается не правильное количество результатов при запросе POST /rest/ships/bulk в формате NDJSON.", 4, results.size());
+        assertEquals("Возвращается не правильный статус при запросе POST /rest/ships/bulk в формате NDJSON.", 200, results.get(0).get("status").asInt());
+        assertEquals("Неразборчивая строка не отклоняется при запросе POST /rest/ships/bulk в формате NDJSON.", 400, results.get(1).get("status").asInt());
+        assertEquals("Невалидный корабль не отклоняется при запросе POST /rest/ships/bulk в формате NDJSON.", 400, results.get(2).get("status").asInt());
+        assertEquals("Возвращается не правильный индекс при запросе POST /rest/ships/bulk в формате NDJSON.", 3, results.get(3).get("index").asInt());
+        assertEquals("Возвращается не правильный id при запросе POST /rest/ships/bulk в формате NDJSON.", 42L, results.get(3).get("id").asLong());
+    }
+
+    //test3
+    @Test
+    public void createShipsBulkEmptyTest() throws Exception {
+        String contentAsString = mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("[]"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Возвращается не пустой список при запросе POST /rest/ships/bulk с пустым массивом.", "[]", contentAsString);
+    }
+}
@@ -0,0 +1,66 @@
+package com.space.controller;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ETagTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getShipNotModifiedTest() throws Exception {
+        String eTag = mockMvc.perform(get("/rest/ships/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("Возвращается не правильный ETag при запросе GET /rest/ships/{id}.", "\"0\"", eTag);
+
+        String content = mockMvc.perform(get("/rest/ships/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Возвращается тело ответа при коде 304.", "", content);
+    }
+
+    //test2
+    @Test
+    public void getShipModifiedAfterUpdateTest() throws Exception {
+        String eTag = mockMvc.perform(get("/rest/ships/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(post("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Updated\"}"))
+                .andExpect(status().isOk());
+
+        String newETag = mockMvc.perform(get("/rest/ships/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("ETag не меняется после изменения корабля.", "\"1\"", newETag);
+    }
+
+    //test3
+    @Test
+    public void getAllNotModifiedUntilDeleteTest() throws Exception {
+        String eTag = mockMvc.perform(get("/rest/ships?shipType=MERCHANT"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/rest/ships?shipType=MERCHANT").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/rest/ships/count?shipType=MERCHANT").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/rest/ships/2"))
+                .andExpect(status().isOk());
+
+        String newETag = mockMvc.perform(get("/rest/ships?shipType=MERCHANT").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals("ETag списка не меняется после удаления корабля.", eTag, newETag);
+    }
+}
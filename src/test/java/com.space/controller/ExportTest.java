@@ -0,0 +1,69 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportNdjsonWithoutFiltersTest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rest/ships/export"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals("Возвращается не правильный тип содержимого при запросе GET /rest/ships/export.",
+                CosmoportController.NDJSON_VALUE, result.getResponse().getContentType());
+        List<ShipInfoTest> actual = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            actual.add(mapper.readValue(line, ShipInfoTest.class));
+        }
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.ID,
+                new ArrayList<>(testsHelper.getAllShips()));
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/export.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void exportCsvWithFiltersTest() throws Exception {
+        String content = mockMvc.perform(get("/rest/ships/export?format=CSV&shipType=MERCHANT&order=RATING"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = content.split("\n");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.RATING,
+                testsHelper.getShipInfosByShipType(ShipType.MERCHANT, testsHelper.getAllShips()));
+        assertEquals("Возвращается не правильный заголовок при запросе GET /rest/ships/export?format=CSV.",
+                "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating", lines[0]);
+        assertEquals("Возвращается не правильное количество строк при запросе GET /rest/ships/export?format=CSV.",
+                expected.size() + 1, lines.length);
+        for (int i = 0; i < expected.size(); i++) {
+            String[] fields = lines[i + 1].split(",");
+            assertEquals("Возвращается не правильный порядок кораблей при запросе GET /rest/ships/export?format=CSV.",
+                    expected.get(i).id, Long.valueOf(fields[0]));
+            assertEquals("Возвращается не правильный тип корабля при запросе GET /rest/ships/export?format=CSV.",
+                    "MERCHANT", fields[3]);
+        }
+    }
+
+    //test3
+    @Test
+    public void exportWrongFormatTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/export?format=XML"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,43 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class FilterStatisticsTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void filterUsageTest() throws Exception {
+        mockMvc.perform(delete("/rest/admin/filters"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships?shipType=MERCHANT&isUsed=false&order=RATING"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/page?isUsed=true&shipType=MILITARY&order=RATING&pageNumber=1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships?name=Or"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/admin/filters")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode usage = mapper.readTree(contentAsString);
+        assertEquals("Возвращается не правильное количество сочетаний фильтров.", 2, usage.size());
+        assertEquals("Возвращается не правильное сочетание фильтров.",
+                "[\"shipType\",\"isUsed\"]", usage.get(0).get("filters").toString());
+        assertEquals("Возвращается не правильный порядок сортировки.", "RATING", usage.get(0).get("order").asText());
+        assertEquals("Возвращается не правильное количество запросов.", 2L, usage.get(0).get("count").asLong());
+        assertEquals("Возвращается не правильное сочетание фильтров.",
+                "[\"name\"]", usage.get(1).get("filters").toString());
+        assertEquals("Возвращается не правильный порядок сортировки.", "ID", usage.get(1).get("order").asText());
+    }
+}
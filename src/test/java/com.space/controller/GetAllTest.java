@@ -5,12 +5,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.controller.utils.ShipInfoTest;
 import com.space.controller.utils.TestsHelper;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.repository.CosmoportRepository;
+import com.space.repository.ShipSpecifications;
 import org.junit.Test;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -217,4 +222,84 @@ public class GetAllTest extends AbstractTest {
 
         assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами after, before, minCrewSize и maxCrewSize.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test11
+    @Test
+    public void getAllWithCursorReturnsNextPage() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/rest/ships?order=RATING&pageSize=4")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+        String cursor = firstPage.getResponse().getHeader(CosmoportController.NEXT_CURSOR_HEADER);
+
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?order=RATING&pageSize=4&cursor=" + cursor)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 4,
+                testsHelper.getShipInfosByOrder(ShipOrder.RATING,
+                        testsHelper.getAllShips()));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметром cursor.", expected, actual);
+    }
+
+    //test12
+    @Test
+    public void getAllWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/rest/ships?cursor=invalid")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test13
+    @Test
+    public void getAllWithFiltersLongNamePlanet() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?name=Star&planet=Merc")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3,
+                testsHelper.getShipInfosByName("Star",
+                        testsHelper.getShipInfosByPlanet("Merc",
+                                testsHelper.getAllShips())));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами name и planet.", expected, actual);
+    }
+
+    //test14
+    @Test
+    public void getAllWithMixedCaseNameSameOnIndexAndLike() throws Exception {
+        // Подстроки из трёх и более символов ищутся по триграммному индексу, в репозитории - через LIKE
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?name=sTaR&planet=mERc&pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<Long> actual = mapper.readValue(contentAsString, typeReference).stream()
+                .map(ship -> ship.id)
+                .collect(Collectors.toList());
+        List<Long> like = context.getBean(CosmoportRepository.class)
+                .findViews(ShipSpecifications.filter("sTaR", "mERc", null, null, null, null, null, null, null, null,
+                        null, null), Sort.by("id"), 0, 40, false).stream()
+                .map(ShipView::getId)
+                .collect(Collectors.toList());
+        List<Long> expected = testsHelper.getShipInfosByName("Star",
+                testsHelper.getShipInfosByPlanet("Merc",
+                        testsHelper.getAllShips())).stream()
+                .map(ship -> ship.id)
+                .collect(Collectors.toList());
+
+        assertEquals("Поиск через LIKE учитывает регистр при запросе GET /rest/ships.", expected, like);
+        assertEquals("Поиск по индексу и через LIKE возвращает разные корабли при запросе GET /rest/ships.", like, actual);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.test.web.servlet.ResultActions;
 
 import static org.junit.Assert.assertSame;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetCountTest extends AbstractTest {
@@ -152,4 +153,57 @@ public class GetCountTest extends AbstractTest {
 
         assertSame("Во звращается не правильный результат при запросе GET /rest/ships/count с параметрами isUsed, minSpeed и maxSpeed.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test9
+    @Test
+    public void getCountWithFiltersNameSpecialCharacters() throws Exception {
+        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?name=(&planet=%25")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+        int actual = Integer.parseInt(contentAsString);
+        int expected = testsHelper.getShipInfosByName("(",
+                testsHelper.getShipInfosByPlanet("%",
+                        testsHelper.getAllShips())).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/ships/count со спецсимволами в параметрах name и planet.", expected, actual);
+    }
+
+    //test10
+    @Test
+    public void getCountApproximateWithFiltersIsExact() throws Exception {
+        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?approximate=true&shipType=MILITARY")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+        int actual = Integer.parseInt(contentAsString);
+        int expected = testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                testsHelper.getAllShips()).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/ships/count с параметрами approximate и shipType.", expected, actual);
+    }
+
+    //test11
+    @Test
+    public void getCountByNameFindsCreatedShip() throws Exception {
+        this.mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?name=345678")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+        int actual = Integer.parseInt(contentAsString);
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/ships/count по названию созданного корабля.", 1, actual);
+    }
+}
@@ -0,0 +1,80 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetPageTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getPageWithoutFiltersReturnsFirstPageAndTotal() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships/page")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        JsonNode page = mapper.readTree(result.getResponse().getContentAsString());
+
+        List<ShipInfoTest> actual = mapper.readValue(mapper.treeAsTokens(page.get("ships")), typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3,
+                testsHelper.getAllShips());
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/page.", expected, actual);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/page.",
+                (long) testsHelper.getAllShips().size(), page.get("total").asLong());
+    }
+
+    //test2
+    @Test
+    public void getPageWithFiltersShipTypePageNumber() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships/page?shipType=MERCHANT&pageNumber=1&pageSize=5")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        JsonNode page = mapper.readTree(result.getResponse().getContentAsString());
+
+        List<ShipInfoTest> merchants = testsHelper.getShipInfosByShipType(ShipType.MERCHANT,
+                testsHelper.getAllShips());
+        List<ShipInfoTest> actual = mapper.readValue(mapper.treeAsTokens(page.get("ships")), typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 5, merchants);
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/page с параметрами shipType и pageNumber.", expected, actual);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/page с параметрами shipType и pageNumber.",
+                (long) merchants.size(), page.get("total").asLong());
+    }
+
+    //test3
+    @Test
+    public void getPageBeyondLastPageReturnsTotal() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships/page?planet=Mars&pageNumber=10")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        JsonNode page = mapper.readTree(result.getResponse().getContentAsString());
+
+        assertEquals("Возвращается не пустой список при запросе GET /rest/ships/page за пределами последней страницы.",
+                0, page.get("ships").size());
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/page за пределами последней страницы.",
+                (long) testsHelper.getShipInfosByPlanet("Mars", testsHelper.getAllShips()).size(),
+                page.get("total").asLong());
+    }
+}
@@ -0,0 +1,141 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.service.async.DbExecutor;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"cosmoport.db.threads=1", "cosmoport.db.queueSize=1",
+        "cosmoport.async.timeout=" + LoadSheddingTest.ASYNC_TIMEOUT})
+public class LoadSheddingTest extends AbstractTest {
+
+    static final long ASYNC_TIMEOUT = 2000;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void getAllOverloadedTest() throws Exception {
+        DbExecutor dbExecutor = context.getBean(DbExecutor.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        // Единственный поток занят, единственное место в очереди тоже
+        dbExecutor.submit("test", () -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        started.await();
+        CompletableFuture<Object> queued = dbExecutor.submit("test", () -> null);
+
+        String retryAfter;
+        try {
+            retryAfter = mockMvc.perform(get("/rest/ships"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andReturn().getResponse().getHeader(HttpHeaders.RETRY_AFTER);
+        } finally {
+            release.countDown();
+        }
+        queued.get();
+        assertEquals("Не возвращается заголовок Retry-After при перегрузке.", "1", retryAfter);
+
+        mockMvc.perform(get("/rest/ships"))
+                .andExpect(status().isOk());
+        JsonNode getSome = endpointStats("getSome");
+        assertEquals("Не учитывается отклонённый запрос.", 1L, getSome.get("rejected").asLong());
+        assertEquals("Не учитывается выполненный запрос.", 1L, getSome.get("completed").asLong());
+        assertEquals("Не правильно считаются одновременные запросы.", 0, getSome.get("inFlight").asInt());
+    }
+
+    //test2
+    @Test
+    public void exportWhileDbPoolBusyTest() throws Exception {
+        DbExecutor dbExecutor = context.getBean(DbExecutor.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Object> busy = dbExecutor.submit("test", () -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        started.await();
+        CompletableFuture<Object> queued = dbExecutor.submit("test", () -> null);
+
+        String content;
+        try {
+            // Выгрузка выполняется в своём пуле и не ждёт обычных обработчиков
+            content = mockMvc.perform(get("/rest/ships/export?format=CSV"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        } finally {
+            release.countDown();
+        }
+        busy.get();
+        queued.get();
+        assertEquals("Выгрузка не выполняется при занятом пуле обработчиков.", 41, content.split("\n").length);
+    }
+
+    //test3
+    @Test
+    public void expiredTaskIsSkippedTest() throws Exception {
+        DbExecutor dbExecutor = context.getBean(DbExecutor.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Object> busy = dbExecutor.submit("test", () -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        started.await();
+        AtomicBoolean executed = new AtomicBoolean();
+        CompletableFuture<Object> queued = dbExecutor.submit("expired", () -> {
+            executed.set(true);
+            return null;
+        });
+
+        // Задача ждёт в очереди дольше тайм-аута запроса
+        Thread.sleep(ASYNC_TIMEOUT + 100);
+        release.countDown();
+        busy.get();
+        try {
+            queued.get();
+        } catch (ExecutionException e) {
+            assertEquals("Просроченная задача завершается не тайм-аутом.", TimeoutException.class, e.getCause().getClass());
+        }
+        assertEquals("Просроченная задача завершается без ошибки.", true, queued.isCompletedExceptionally());
+        assertEquals("Выполняется задача, ответ на которую уже не нужен.", false, executed.get());
+        assertEquals("Не учитывается просроченная задача.", 1L, endpointStats("expired").get("expired").asLong());
+    }
+
+    private JsonNode endpointStats(String endpoint) throws Exception {
+        String contentAsString = mockMvc.perform(get("/rest/admin/executor")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        for (JsonNode stats : mapper.readTree(contentAsString).get("endpoints")) {
+            if (endpoint.equals(stats.get("endpoint").asText())) return stats;
+        }
+        throw new AssertionError("Нет счётчиков обработчика " + endpoint);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
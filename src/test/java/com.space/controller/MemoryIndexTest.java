@@ -0,0 +1,166 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertSame;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "cosmoport.memoryIndex.enabled=true")
+public class MemoryIndexTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getAllWithFiltersShipTypeMinSpeedMaxSpeed() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?shipType=TRANSPORT&minSpeed=0.3&maxSpeed=0.6")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3,
+                testsHelper.getShipInfosByShipType(ShipType.TRANSPORT,
+                        testsHelper.getShipInfosByMinSpeed(0.3,
+                                testsHelper.getShipInfosByMaxSpeed(0.6,
+                                        testsHelper.getAllShips()))));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships в режиме memory index.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void getAllWithFiltersNameIsUsedOrderRating() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?name=a&isUsed=false&order=RATING&pageNumber=1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 3,
+                testsHelper.getShipInfosByOrder(ShipOrder.RATING,
+                        testsHelper.getShipInfosByName("a",
+                                testsHelper.getShipInfosByIsUsed(false,
+                                        testsHelper.getAllShips()))));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с сортировкой в режиме memory index.", expected, actual);
+    }
+
+    //test3
+    @Test
+    public void getAllWithCursorReturnsNextPage() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/rest/ships?order=SPEED&pageSize=5")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+        String cursor = firstPage.getResponse().getHeader(CosmoportController.NEXT_CURSOR_HEADER);
+
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?order=SPEED&pageSize=5&cursor=" + cursor)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 5,
+                testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                        testsHelper.getAllShips()));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с курсором в режиме memory index.", expected, actual);
+    }
+
+    //test4
+    @Test
+    public void getCountFollowsCreateAndDelete() throws Exception {
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/ships/4"))
+                .andExpect(status().isOk());
+
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships/count?shipType=MILITARY&minCrewSize=10")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        int actual = Integer.parseInt(result.getResponse().getContentAsString());
+        int expected = testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                testsHelper.getShipInfosByMinCrewSize(10,
+                        testsHelper.getAllShips())).size();
+
+        assertSame("Возвращается не правильный результат при запросе GET /rest/ships/count после изменений в режиме memory index.", expected, actual);
+    }
+
+    //test5
+    @Test
+    public void getAllWithMixedCaseNameAndPlanet() throws Exception {
+        // Подстрока названия ищется по триграммам, а планеты (короче триграммы) - перебором
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?name=oRIOn&planet=MA&pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getAllShips().stream()
+                .filter(ship -> ship.name.toLowerCase().contains("orion") && ship.planet.toLowerCase().contains("ma"))
+                .collect(Collectors.toList());
+
+        assertEquals("Поиск по подстроке учитывает регистр в режиме memory index.", false, expected.isEmpty());
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с подстрокой в другом регистре в режиме memory index.", expected, actual);
+    }
+
+    //test6
+    @Test
+    public void createAfterDeleteReusesSlot() throws Exception {
+        mockMvc.perform(delete("/rest/ships/4"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?order=ID&pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> actual = mapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), typeReference);
+        List<Long> expected = testsHelper.getAllShips().stream()
+                .map(ship -> ship.id)
+                .filter(id -> id != 4)
+                .collect(Collectors.toList());
+        expected.add(41L);
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships после удаления и создания в режиме memory index.",
+                expected, actual.stream().map(ship -> ship.id).collect(Collectors.toList()));
+        assertEquals("Созданный корабль сохраняется не правильно в режиме memory index.", "123456789", actual.get(39).name);
+    }
+}
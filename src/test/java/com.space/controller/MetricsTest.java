@@ -0,0 +1,60 @@
+package com.space.controller;
+
+import com.space.config.MetricsFilter;
+import com.space.controller.utils.AsyncMockMvc;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetricsTest extends AbstractTest {
+
+    @Before
+    public void setupFilter() {
+        mockMvc = new AsyncMockMvc(MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean(MetricsFilter.class)).build());
+    }
+
+    //test1
+    @Test
+    public void metricsTest() throws Exception {
+        mockMvc.perform(get("/rest/ships?name=or")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Не учитывается время асинхронного запроса GET /rest/ships.", true,
+                metrics.contains("cosmoport_http_requests_seconds_count{method=\"GET\",status=\"200\",uri=\"/rest/ships\",}"));
+        assertEquals("Не считаются процентили времени запроса POST /rest/ships/.", true,
+                metrics.contains("cosmoport_http_requests_seconds{method=\"POST\",status=\"200\",uri=\"/rest/ships/\",quantile=\"0.99\",}"));
+        assertEquals("Не считаются SQL-запросы запроса GET /rest/ships.", true,
+                metrics.contains("cosmoport_http_sql_statements_count{method=\"GET\",uri=\"/rest/ships\",}"));
+        assertEquals("Не учитывается число кораблей, возвращённых фильтром.", true,
+                metrics.contains("cosmoport_filter_rows_count"));
+        assertEquals("Не учитывается длительность транзакций.", true,
+                metrics.contains("cosmoport_transactions_seconds_count{outcome=\"committed\",readOnly=\"false\",}"));
+    }
+
+    //test2
+    @Test
+    public void metricsContentTypeTest() throws Exception {
+        String contentType = mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentType();
+        assertEquals("Возвращается не правильный тип содержимого при запросе GET /metrics.", true,
+                contentType.startsWith("text/plain;") && contentType.contains("version=0.0.4"));
+    }
+}
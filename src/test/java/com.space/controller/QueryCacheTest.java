@@ -0,0 +1,85 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Изменения в обход Hibernate не сбрасывают кэш запросов, поэтому по ответам видно,
+ * прочитан ли результат из кэша или из базы
+ */
+public class QueryCacheTest extends AbstractTest {
+
+    private JdbcTemplate jdbc;
+
+    @Before
+    public void setupJdbc() {
+        jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+    }
+
+    //test1
+    @Test
+    public void pageByNumberIsCachedTest() throws Exception {
+        String before = perform("/rest/ships?order=ID").getResponse().getContentAsString();
+        jdbc.update("UPDATE ship SET name = 'Changed' WHERE id = 1");
+
+        assertEquals("Страница по номеру не берётся из кэша запросов.", before,
+                perform("/rest/ships?order=ID").getResponse().getContentAsString());
+    }
+
+    //test2
+    @Test
+    public void pageByCursorIsNotCachedTest() throws Exception {
+        String cursor = perform("/rest/ships?order=ID").getResponse()
+                .getHeader(CosmoportController.NEXT_CURSOR_HEADER);
+        String url = "/rest/ships?order=ID&cursor=" + cursor;
+        perform(url);
+        jdbc.update("UPDATE ship SET name = 'Changed' WHERE id = 4");
+
+        assertEquals("Страница по курсору берётся из кэша запросов.", true,
+                perform(url).getResponse().getContentAsString().contains("Changed"));
+    }
+
+    //test3
+    @Test
+    public void countIsNotCachedTest() throws Exception {
+        String url = "/rest/ships/count?shipType=MILITARY";
+        int before = Integer.parseInt(perform(url).getResponse().getContentAsString());
+        jdbc.update("DELETE FROM ship WHERE id = (SELECT MIN(id) FROM ship WHERE shipType = 'MILITARY')");
+
+        assertEquals("Количество кораблей берётся из кэша запросов.", before - 1,
+                Integer.parseInt(perform(url).getResponse().getContentAsString()));
+    }
+
+    //test4
+    @Test
+    public void bulkCreateEvictsQueryCacheTest() throws Exception {
+        perform("/rest/ships?order=ID");
+        jdbc.update("UPDATE ship SET name = 'Changed' WHERE id = 1");
+        mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("[" + TestsHelper.NORMAL_JSON + "]"))
+                .andExpect(status().isOk());
+
+        assertEquals("Кэш запросов не сбрасывается после запроса POST /rest/ships/bulk.", true,
+                perform("/rest/ships?order=ID").getResponse().getContentAsString().contains("Changed"));
+    }
+
+    private MvcResult perform(String url) throws Exception {
+        return mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+}
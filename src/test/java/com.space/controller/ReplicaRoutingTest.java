@@ -0,0 +1,90 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import com.space.service.routing.ReplicaRoutingDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Основная база и реплика - две независимые базы H2 с одинаковыми начальными данными.
+ * Изменения в реплику не передаются, поэтому по количеству кораблей видно, откуда они прочитаны.
+ * Скрипт test.sql перед каждым тестом - запись в основную базу, поэтому тест сначала дожидается конца окна
+ * чтения из основной базы
+ */
+@TestPropertySource(properties = {"db.replica.embedded=1", "db.replica.maxLag=5",
+        "db.replica.lagQuery=SELECT lag FROM replica_lag", "db.replica.checkInterval=600000",
+        "db.replica.primaryWindow=" + ReplicaRoutingTest.PRIMARY_WINDOW})
+public class ReplicaRoutingTest extends AbstractTest {
+    static final long PRIMARY_WINDOW = 500;
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate replica;
+
+    @Before
+    public void setupReplica() throws InterruptedException {
+        routing = context.getBean(ReplicaRoutingDataSource.class);
+        replica = new JdbcTemplate(routing.getReplicas().get(0));
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag BIGINT)");
+        replica.execute("DELETE FROM replica_lag");
+        replica.execute("INSERT INTO replica_lag VALUES (0)");
+        routing.checkReplicas();
+        // Строка, удалённая только на реплике, показывает, что чтение идёт с реплики
+        replica.update("DELETE FROM ship WHERE id = 1");
+        Thread.sleep(PRIMARY_WINDOW);
+    }
+
+    //test1
+    @Test
+    public void readFromReplicaTest() throws Exception {
+        assertEquals("Количество кораблей читается не с реплики.", "39", count());
+        assertEquals("Соединение с репликой не возвращается в пул.", 0, routing.getReplicas().get(0).getActive());
+    }
+
+    //test2
+    @Test
+    public void laggingReplicaTest() throws Exception {
+        replica.update("UPDATE replica_lag SET lag = 10");
+        routing.checkReplicas();
+
+        assertEquals("Отстающая реплика не исключается.", false, routing.getReplicas().get(0).isHealthy());
+        assertEquals("При отстающей реплике количество кораблей читается не из основной базы.", "40", count());
+
+        replica.update("UPDATE replica_lag SET lag = 1");
+        routing.checkReplicas();
+        assertEquals("Догнавшая реплика не возвращается.", "39", count());
+    }
+
+    //test3
+    @Test
+    public void readFromPrimaryAfterWriteTest() throws Exception {
+        createShip();
+
+        assertEquals("Сразу после записи количество кораблей читается не из основной базы.", "41", count());
+
+        Thread.sleep(PRIMARY_WINDOW);
+        assertEquals("После окна записи количество кораблей читается не с реплики.", "39", count());
+    }
+
+    private void createShip() throws Exception {
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+    }
+
+    private String count() throws Exception {
+        return mockMvc.perform(get("/rest/ships/count")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipRating;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "cosmoport.rating.chunkSize=7")
+public class RerateTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @After
+    public void resetActualYear() throws Exception {
+        mockMvc.perform(post("/rest/admin/rating?actualYear=" + ShipRating.ACTUAL_YEAR))
+                .andExpect(status().isAccepted());
+        awaitRerate();
+    }
+
+    //test1
+    @Test
+    public void rerateAllShipsTest() throws Exception {
+        mockMvc.perform(post("/rest/admin/rating?actualYear=3020"))
+                .andExpect(status().isAccepted());
+        JsonNode progress = awaitRerate();
+        assertEquals("Пересчёт рейтинга завершается не успешно.", "DONE", progress.get("status").asText());
+        assertEquals("Пересчитываются не все корабли.", 40L, progress.get("processed").asLong());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships?pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> ships = mapper.readValue(contentAsString, typeReference);
+        ShipRating engine = new ShipRating(3020);
+        for (ShipInfoTest ship : ships) {
+            assertEquals("Рейтинг корабля " + ship.id + " не пересчитан по новому текущему году.",
+                    engine.rating(ship.speed, ship.isUsed, ship.prodDate), ship.rating);
+        }
+    }
+
+    //test2
+    @Test
+    public void rerateYearBeforeLastProdYearTest() throws Exception {
+        mockMvc.perform(post("/rest/admin/rating?actualYear=3018"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test3
+    @Test
+    public void createShipAfterRerateTest() throws Exception {
+        mockMvc.perform(post("/rest/admin/rating?actualYear=3025"))
+                .andExpect(status().isAccepted());
+        awaitRerate();
+
+        String contentAsString = mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
+        assertEquals("Новый корабль получает рейтинг не по новому текущему году.",
+                new ShipRating(3025).rating(0.8, false, 32998274577071L), actual.rating);
+    }
+
+    // Ожидает завершения фонового пересчёта и возвращает его состояние
+    private JsonNode awaitRerate() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String contentAsString = mockMvc.perform(get("/rest/admin/rating")
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode progress = mapper.readTree(contentAsString);
+            if (!"RUNNING".equals(progress.get("status").asText())) return progress;
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Пересчёт рейтинга не завершается за 10 секунд.");
+    }
+}
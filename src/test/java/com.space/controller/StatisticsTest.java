@@ -0,0 +1,96 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class StatisticsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void statisticsByShipTypeTest() throws Exception {
+        JsonNode groups = getJson("/rest/ships/stats?group=SHIP_TYPE");
+
+        assertEquals("Возвращается не правильное количество групп при запросе GET /rest/ships/stats.", 3, groups.size());
+        for (JsonNode group : groups) {
+            List<ShipInfoTest> ships = testsHelper.getShipInfosByShipType(ShipType.valueOf(group.get("key").asText()),
+                    testsHelper.getAllShips());
+            assertEquals("Возвращается не правильное количество кораблей в группе при запросе GET /rest/ships/stats.",
+                    (long) ships.size(), group.get("count").asLong());
+            assertEquals("Возвращается не правильная максимальная скорость при запросе GET /rest/ships/stats.",
+                    ships.stream().mapToDouble(ship -> ship.speed).max().getAsDouble(), group.get("maxSpeed").asDouble());
+            assertEquals("Возвращается не правильный минимальный размер экипажа при запросе GET /rest/ships/stats.",
+                    ships.stream().mapToInt(ship -> ship.crewSize).min().getAsInt(), group.get("minCrewSize").asInt());
+            assertEquals("Возвращается не правильный средний рейтинг при запросе GET /rest/ships/stats.",
+                    Math.round(ships.stream().mapToDouble(ship -> ship.rating).average().getAsDouble() * 1e6),
+                    Math.round(group.get("avgRating").asDouble() * 1e6));
+        }
+    }
+
+    //test2
+    @Test
+    public void statisticsWithFilterTest() throws Exception {
+        JsonNode groups = getJson("/rest/ships/stats?isUsed=true&maxSpeed=0.5");
+
+        List<ShipInfoTest> ships = testsHelper.getShipInfosByIsUsed(true,
+                testsHelper.getShipInfosByMaxSpeed(0.5, testsHelper.getAllShips()));
+        assertEquals("Возвращается не одна группа при запросе GET /rest/ships/stats без группировки.", 1, groups.size());
+        assertEquals("Возвращается ключ группы при запросе GET /rest/ships/stats без группировки.",
+                true, groups.get(0).get("key").isNull());
+        assertEquals("Возвращается не правильное количество кораблей при запросе GET /rest/ships/stats с фильтрами.",
+                (long) ships.size(), groups.get(0).get("count").asLong());
+    }
+
+    //test3
+    @Test
+    public void histogramCrewSizeTest() throws Exception {
+        JsonNode buckets = getJson("/rest/ships/stats/histogram?metric=CREW_SIZE&buckets=5");
+
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+        int min = ships.stream().mapToInt(ship -> ship.crewSize).min().getAsInt();
+        int max = ships.stream().mapToInt(ship -> ship.crewSize).max().getAsInt();
+        assertEquals("Возвращается не правильное количество интервалов при запросе GET /rest/ships/stats/histogram.",
+                5, buckets.size());
+        assertEquals("Возвращается не правильная левая граница при запросе GET /rest/ships/stats/histogram.",
+                (double) min, buckets.get(0).get("from").asDouble());
+        assertEquals("Возвращается не правильная правая граница при запросе GET /rest/ships/stats/histogram.",
+                (double) max, buckets.get(4).get("to").asDouble());
+        for (JsonNode bucket : buckets) {
+            double from = bucket.get("from").asDouble();
+            double to = bucket.get("to").asDouble();
+            long expected = ships.stream()
+                    .filter(ship -> ship.crewSize >= from && (ship.crewSize < to || to == max && ship.crewSize == max))
+                    .count();
+            assertEquals("Возвращается не правильное количество кораблей в интервале при запросе GET /rest/ships/stats/histogram.",
+                    expected, bucket.get("count").asLong());
+        }
+    }
+
+    //test4
+    @Test
+    public void histogramWrongBucketsTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/stats/histogram?metric=SPEED&buckets=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String contentAsString = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+}
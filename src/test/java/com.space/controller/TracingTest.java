@@ -0,0 +1,88 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.TracingFilter;
+import com.space.controller.utils.AsyncMockMvc;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TracingTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setupFilter() throws Exception {
+        mockMvc = new AsyncMockMvc(MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean(TracingFilter.class)).build());
+        mockMvc.perform(delete("/rest/admin/traces"))
+                .andExpect(status().isOk());
+    }
+
+    //test1
+    @Test
+    public void traceGetShipsTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships?pageSize=5")
+                .header(TracingFilter.TRACE_HEADER, "true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String id = response.getHeader(TracingFilter.TRACE_ID_HEADER);
+        assertEquals("Не возвращается номер трассировки при запросе с заголовком X-Cosmoport-Trace.", true, id != null);
+
+        JsonNode traces = mapper.readTree(mockMvc.perform(get("/rest/admin/traces")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals("Возвращается не правильное количество трассировок при запросе GET /rest/admin/traces.",
+                1, traces.size());
+        JsonNode trace = traces.get(0);
+        assertEquals("Возвращается не правильный номер трассировки.", Long.valueOf(id), trace.get("id").asLong());
+        assertEquals("Возвращается не правильный путь трассировки.", "/rest/ships?pageSize=5", trace.get("uri").asText());
+
+        List<JsonNode> spans = new ArrayList<>();
+        collect(trace.get("span"), spans);
+        List<String> names = new ArrayList<>();
+        spans.forEach(span -> names.add(span.get("name").asText()));
+        for (String name : new String[]{"request", "handler", "db.task", "service.filter", "repository.findAll",
+                "jdbc", "serialize"}) {
+            assertEquals("Трассировка не содержит этап " + name + ".", true, names.contains(name));
+        }
+        JsonNode select = spans.get(names.indexOf("jdbc"));
+        assertEquals("Не записывается текст SQL-запроса.", true,
+                select.get("detail").asText().toLowerCase().startsWith("select"));
+        assertEquals("Записывается не правильное число строк SQL-запроса.", 5L, select.get("rows").asLong());
+    }
+
+    //test2
+    @Test
+    public void notTracedWithoutHeaderTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Запрос без заголовка X-Cosmoport-Trace трассируется.",
+                null, response.getHeader(TracingFilter.TRACE_ID_HEADER));
+        String traces = mockMvc.perform(get("/rest/admin/traces")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Сохраняется трассировка запроса без заголовка X-Cosmoport-Trace.", "[]", traces);
+    }
+
+    private static void collect(JsonNode span, List<JsonNode> spans) {
+        spans.add(span);
+        for (JsonNode child : span.get("children")) collect(child, spans);
+    }
+}
@@ -6,10 +6,14 @@ import com.space.controller.utils.TestsHelper;
 import com.space.model.ShipType;
 import org.junit.Test;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.sql.DataSource;
+
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -188,4 +192,25 @@ public class UpdateShipTest extends AbstractTest {
 
         assertEquals("При запросе POST /rest/ships/{id} корабль должен обновляться и рейтинг пересчитываться", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test12
+    @Test
+    public void updateShipConflictKeepsIndexesTest() throws Exception {
+        // Корабль попадает в кэш второго уровня, затем его версия меняется в базе в обход Hibernate
+        mockMvc.perform(get("/rest/ships/1"))
+                .andExpect(status().isOk());
+        new JdbcTemplate(context.getBean(DataSource.class)).update("UPDATE ship SET version = version + 1 WHERE id = 1");
+
+        mockMvc.perform(post("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Rejected\"}"))
+                .andExpect(status().isConflict());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships?name=Rejected")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Отклонённое изменение корабля попадает в индекс.", "[]", contentAsString);
+    }
+}
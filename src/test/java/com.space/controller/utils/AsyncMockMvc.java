@@ -0,0 +1,51 @@
+package com.space.controller.utils;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultHandler;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * MockMvc, который дожидается асинхронных обработчиков: если запрос перешёл в асинхронный режим,
+ * проверки выполняются над результатом повторной отправки (asyncDispatch), как у настоящего контейнера
+ */
+public class AsyncMockMvc {
+    private final MockMvc mockMvc;
+
+    public AsyncMockMvc(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    public ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            // Нулевой тайм-аут в контейнере означает ожидание без ограничения, а MockMvc не стал бы ждать вовсе
+            if (result.getRequest().getAsyncContext().getTimeout() <= 0) {
+                result.getAsyncResult(Long.MAX_VALUE);
+            }
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return new ResultActions() {
+            @Override
+            public ResultActions andExpect(ResultMatcher matcher) throws Exception {
+                matcher.match(result);
+                return this;
+            }
+
+            @Override
+            public ResultActions andDo(ResultHandler handler) throws Exception {
+                handler.handle(result);
+                return this;
+            }
+
+            @Override
+            public MvcResult andReturn() {
+                return result;
+            }
+        };
+    }
+}
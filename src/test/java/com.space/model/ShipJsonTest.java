@@ -0,0 +1,98 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ShipJsonTest {
+
+    private ObjectMapper mapper = configure(new ObjectMapper());
+    // Прежнее отражение корабля через @JsonProperty, без ShipSerializer и ShipDeserializer
+    private ObjectMapper legacyMapper = configure(new ObjectMapper()).setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+        @Override
+        public Object findSerializer(Annotated a) {
+            return a.getRawType() == Ship.class ? null : super.findSerializer(a);
+        }
+
+        @Override
+        public Object findDeserializer(Annotated a) {
+            return a.getRawType() == Ship.class ? null : super.findDeserializer(a);
+        }
+    });
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return mapper;
+    }
+
+    //test1
+    @Test
+    public void serializeMatchesLegacyTest() throws Exception {
+        Ship ship = new Ship();
+        ship.setId(7L);
+        ship.setName("Orion \"III\"");
+        ship.setPlanet("Марс");
+        ship.setShipType(ShipType.MERCHANT);
+        ship.setProdDate(new Date(32998274577071L));
+        ship.setUsed(true);
+        ship.setSpeed(0.82);
+        ship.setCrewSize(617);
+        ship.setRating(1.31);
+        ship.setVersion(3L);
+        assertEquals("Корабль сериализуется не так, как прежде.",
+                legacyMapper.writeValueAsString(ship), mapper.writeValueAsString(ship));
+        assertEquals("Корабль с пустыми полями сериализуется не так, как прежде.",
+                legacyMapper.writeValueAsString(new Ship()), mapper.writeValueAsString(new Ship()));
+    }
+
+    //test2
+    @Test
+    public void deserializeMatchesLegacyTest() throws Exception {
+        String[] jsons = {
+                "{\"name\":\"Orion\",\"planet\":\"Mars\",\"shipType\":\"MILITARY\",\"prodDate\":32998274577071,"
+                        + "\"isUsed\":false,\"speed\":0.8,\"crewSize\":14,\"id\":5,\"rating\":2.5,\"version\":9}",
+                "{\"name\":12,\"speed\":\"0.5\",\"crewSize\":\"100\",\"isUsed\":\"true\",\"prodDate\":\"2019-01-01T00:00:00.000+0000\"}",
+                "{\"speed\":1,\"crewSize\":null,\"shipType\":null,\"prodDate\":null}",
+                "{}"
+        };
+        for (String json : jsons) {
+            assertEquals("Корабль " + json + " десериализуется не так, как прежде.",
+                    legacyMapper.writeValueAsString(legacyMapper.readValue(json, Ship.class)),
+                    legacyMapper.writeValueAsString(mapper.readValue(json, Ship.class)));
+        }
+    }
+
+    //test3
+    @Test(expected = UnrecognizedPropertyException.class)
+    public void deserializeUnknownFieldTest() throws Exception {
+        mapper.readValue("{\"name\":\"Orion\",\"color\":\"red\"}", Ship.class);
+    }
+
+    //test4
+    @Test
+    public void viewSerializeMatchesShipTest() throws Exception {
+        Ship ship = new Ship();
+        ship.setId(7L);
+        ship.setName("Orion \"III\"");
+        ship.setPlanet("Марс");
+        ship.setShipType(ShipType.MERCHANT);
+        ship.setProdDate(new Date(32998274577071L));
+        ship.setUsed(true);
+        ship.setSpeed(0.82);
+        ship.setCrewSize(617);
+        ship.setRating(1.31);
+        ShipView view = new ShipView(7L, "Orion \"III\"", "Марс", ShipType.MERCHANT, new Date(32998274577071L),
+                true, 0.82, 617, 1.31);
+        assertEquals("Представление корабля сериализуется не так, как корабль.",
+                mapper.writeValueAsString(ship), mapper.writeValueAsString(view));
+    }
+}
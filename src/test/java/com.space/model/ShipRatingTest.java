@@ -0,0 +1,63 @@
+package com.space.model;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ShipRatingTest {
+
+    private static final long MIN_PROD_DATE = 26192246400000L;
+    private static final long MAX_PROD_DATE = 33103209600000L;
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private ShipRating engine = new ShipRating(ShipRating.ACTUAL_YEAR);
+
+    // Прежний расчёт рейтинга из Ship.makeRating
+    private static double legacyRating(Double speed, Boolean isUsed, long prodDate) {
+        int prodYear = Integer.parseInt(new SimpleDateFormat("yyyy").format(prodDate));
+        Double rating = (80 * speed * (isUsed ? 0.5 : 1)) / (3019 - prodYear + 1);
+        return Math.round(rating * 100.0) / 100.0;
+    }
+
+    //test1
+    @Test
+    public void ratingMatchesLegacyFormulaTest() {
+        double[] speeds = {0.01, 0.13, 0.5, 0.77, 0.99};
+        for (long date = MIN_PROD_DATE; date <= MAX_PROD_DATE; date += 7 * HOUR) {
+            for (double speed : speeds) {
+                assertEquals("Рейтинг не совпадает с прежним расчётом для даты " + date,
+                        legacyRating(speed, true, date), engine.rating(speed, true, date));
+                assertEquals("Рейтинг не совпадает с прежним расчётом для даты " + date,
+                        legacyRating(speed, false, date), engine.rating(speed, false, date));
+            }
+        }
+    }
+
+    //test2
+    @Test
+    public void ratingForLaterActualYearTest() {
+        ShipRating later = new ShipRating(3020);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(3019, Calendar.JUNE, 1);
+        assertEquals("Рейтинг не учитывает текущий год", 20.0, later.rating(0.5, false, calendar.getTimeInMillis()));
+        calendar.set(Calendar.YEAR, 3018);
+        assertEquals("Рейтинг не учитывает текущий год", 6.67, later.rating(0.5, true, calendar.getTimeInMillis()));
+    }
+
+    //test3
+    @Test
+    public void yearBoundariesTest() {
+        Calendar calendar = Calendar.getInstance();
+        for (int year = 2800; year <= 3020; year++) {
+            calendar.clear();
+            calendar.set(year, Calendar.JANUARY, 1);
+            long start = calendar.getTimeInMillis();
+            assertEquals("Не правильно определяется начало года " + year, year, ShipRating.year(start));
+            assertEquals("Не правильно определяется конец года " + (year - 1), year - 1, ShipRating.year(start - 1));
+        }
+    }
+}